@@ -1,23 +1,49 @@
-import java.io.*;
-import java.lang.management.*;
-import java.util.*;
+import java.nio.file.Path;
 import java.util.concurrent.*;
 
+import loombench.harness.CompletionCounter;
+import loombench.harness.Config;
+import loombench.harness.LatencyRecorder;
+import loombench.harness.PipelineExecutor;
+import loombench.harness.results.ResultsFile;
+import loombench.harness.sampling.NativeMemorySampler;
+import loombench.harness.sampling.PinningMonitor;
+import loombench.harness.sampling.ProcessCpuSampler;
+import loombench.harness.sampling.ResourceSampler;
+import loombench.harness.workload.Workload;
+import loombench.harness.workload.Workloads;
+
 public class ThreadComparisonMixedTask {
 
+    // Override with -Dio.workload=<spec> / -Dcpu.workload=<spec>
+    static final Workload IO_WORKLOAD = Workloads.fromProperty("io.workload", "sleep:millis=10");
+    static final Workload CPU_WORKLOAD = Workloads.fromProperty("cpu.workload", "primes:limit=5000:method=naive");
+    static final ResultsFile RESULTS = ResultsFile.forBenchmark("ThreadComparisonMixedTask");
+    static final int SAMPLE_INTERVAL_MS = Config.intValue("memory.interval", 50);
+    static final int CPU_INTERVAL_MS = Config.intValue("cpu.interval", 100);
+    static final int RESOURCE_INTERVAL_MS = Config.intValue("resource.interval", 10);
+    static final PinningMonitor PINNING = PinningMonitor.fromProperty(); // -Dpinning
+    // Hybrid pipeline: -Dpipeline.queue=<handoff slots> / -Dpipeline.io=<max in-flight I/O tasks>
+    static final int PIPELINE_QUEUE = Config.intValue("pipeline.queue", 1024);
+    static final int PIPELINE_IO = Config.intValue("pipeline.io", 10000);
+    static LatencyRecorder taskLatencies; // End-to-end latency per task, reset for every run
+    static PipelineExecutor.Stats pipelineStats; // Set by the Hybrid run only
+
     public static void main(String[] args) throws Exception {
-        int[] threadCounts = {1000, 2000, 5000, 10000, 20000};
-        long pid = ProcessHandle.current().pid();
+        int[] threadCounts = Config.intList("counts", 1000, 2000, 5000, 10000, 20000); // -Dcounts=...
 
         System.out.printf("| %-7s | %-12s | %-13s | %-16s | %-13s | %-7s | %-8s |\n",
-                "Threads", "Thread Model", "Live Threads", "Used Memory (MB)", "Memory/Thread", "CPU (%)", "Time (s)");
+                "Threads", "Thread Model", "Peak Threads", "Heap Growth (MB)", "Memory/Thread", "CPU (%)", "Time (s)");
         System.out.println("|---------|--------------|--------------|------------------|---------------|---------|----------|");
 
         for (int count : threadCounts) {
-            runTestGroup(count, pid);
+            runTestGroup(count);
         }
 
         System.out.println("All tests done.");
+        PINNING.close();
+        RESULTS.write();
+        System.out.println("Results → " + RESULTS.csvPath() + ", " + RESULTS.jsonPath());
 
         // System info
         System.out.println("\n=== System Configuration ===");
@@ -26,36 +52,84 @@ public class ThreadComparisonMixedTask {
         System.out.println("Available Cores  : " + Runtime.getRuntime().availableProcessors());
     }
 
-    private static void runTestGroup(int threadCount, long pid) throws Exception {
-        runTest(threadCount, "Platform", () -> runPlatformThreads(threadCount), pid);
-        runTest(threadCount, "Virtual", () -> runVirtualThreads(threadCount), pid);
-        runTest(threadCount, "Hybrid", () -> runHybridThreads(threadCount), pid);
+    private static void runTestGroup(int threadCount) throws Exception {
+        runTest(threadCount, "Platform", () -> runPlatformThreads(threadCount));
+        runTest(threadCount, "Virtual", () -> runVirtualThreads(threadCount));
+        runTest(threadCount, "Hybrid", () -> runHybridThreads(threadCount));
     }
 
-    private static void runTest(int threadCount, String model, ThrowingRunnable testMethod, long pid) throws Exception {
-        System.gc();
-        Thread.sleep(200);
+    private static void runTest(int threadCount, String model, ThrowingRunnable testMethod) throws Exception {
+        System.gc(); // baseline without the previous model's garbage; returns once the collection is done
+
+        taskLatencies = new LatencyRecorder();
+        pipelineStats = null;
 
-        long beforeMem = getUsedMemory();
-        long beforeCpuTime = getCpuTime();
+        PINNING.drain(); // drop events from GC settling and the previous model
+        ProcessCpuSampler cpuSampler = ProcessCpuSampler.start(CPU_INTERVAL_MS);
+        NativeMemorySampler sampler = NativeMemorySampler.start(SAMPLE_INTERVAL_MS);
+        ResourceSampler resourceSampler = ResourceSampler.start(RESOURCE_INTERVAL_MS);
         long start = System.nanoTime();
 
         testMethod.run();
 
         long end = System.nanoTime();
-        long afterCpuTime = getCpuTime();
-        long afterMem = getUsedMemory();
+        ResourceSampler.Summary resources = resourceSampler.stop();
+        NativeMemorySampler.Summary memory = sampler.stop();
+        ProcessCpuSampler.Summary cpu = cpuSampler.stop();
+        PinningMonitor.Report pinning = PINNING.drain();
 
-        double usedMemoryMB = (afterMem - beforeMem) / (1024.0 * 1024);
+        double usedMemoryMB = resources.heapGrowthKB() / 1024.0;
         double timeSec = (end - start) / 1_000_000_000.0;
-        double cpuUsage = (afterCpuTime - beforeCpuTime) / 1_000_000.0 / (timeSec * 1000);
-        int liveThreads = Thread.activeCount();
+        double cpuUsage = cpu.averagePercent() / 100;
+        int liveThreads = resources.peakThreads();
         double memoryPerThread = usedMemoryMB / threadCount;
+        LatencyRecorder.Snapshot latency = pipelineStats != null ? pipelineStats.endToEnd() : taskLatencies.snapshot();
 
         System.out.printf("| %-7d | %-12s | %-13d | %16.2f | %13.4f | %7.2f | %8.2f |\n",
                 threadCount, model, liveThreads, usedMemoryMB, memoryPerThread, cpuUsage * 100, timeSec);
 
-        printNativeMemorySummary(pid, model, threadCount);
+        NativeMemorySampler.Sample peak = memory.peak();
+        ResultsFile.Row row = RESULTS.row()
+                .put("Thread Count", threadCount)
+                .put("Thread Model", model)
+                .put("Total Memory (MB)", usedMemoryMB)
+                .put("Memory/Thread", memoryPerThread)
+                .put("CPU (%)", cpuUsage * 100)
+                .put("CPU Peak (%)", cpu.peakPercent())
+                .put("CPU User (%)", cpu.userPercent())
+                .put("CPU Sys (%)", cpu.systemPercent())
+                .put("Time (s)", timeSec)
+                .put("Latency p50 (ms)", latency.percentile(50) / 1_000_000.0)
+                .put("Latency p99 (ms)", latency.percentile(99) / 1_000_000.0)
+                .put("Latency Max (ms)", latency.max() / 1_000_000.0)
+                .put("Peak RSS (MB)", peak.rssKB() / 1024.0)
+                .put("Peak Thread Stacks (MB)", peak.stackCommittedKB() / 1024.0)
+                .put("Peak Heap Committed (MB)", peak.heapCommittedKB() / 1024.0)
+                .put("Peak Metaspace (MB)", peak.metaspaceCommittedKB() / 1024.0)
+                .put("Stack/Thread (KB)", memory.stackPerThreadKB(threadCount))
+                .put("RSS/Thread (KB)", memory.rssPerThreadKB(threadCount));
+        resources.addTo(row);
+        if (PINNING.enabled()) {
+            pinning.addTo(row);
+        }
+        if (pipelineStats != null) {
+            row.put("Handoff Wait p99 (ms)", pipelineStats.handoffWait().percentile(99) / 1_000_000.0)
+                    .put("Peak Queue Depth", pipelineStats.peakQueueDepth())
+                    .put("Failed Tasks", pipelineStats.failedTasks());
+        }
+
+        System.out.printf("⏱ Latency → p50: %.2f ms | p99: %.2f ms | Max: %.2f ms%n",
+                latency.percentile(50) / 1_000_000.0, latency.percentile(99) / 1_000_000.0, latency.max() / 1_000_000.0);
+        if (pipelineStats != null) {
+            printPipelineSummary(pipelineStats);
+        }
+        if (PINNING.enabled()) {
+            System.out.println("📌 Pinning → " + pinning);
+        }
+        System.out.printf("⚙ CPU → avg: %.2f%% | peak: %.2f%% | user: %.2f%% | sys: %.2f%%%n",
+                cpu.averagePercent(), cpu.peakPercent(), cpu.userPercent(), cpu.systemPercent());
+        printNativeMemorySummary(memory, model, threadCount);
+        printResourceSummary(resources, model, threadCount);
     }
 
     @FunctionalInterface
@@ -66,114 +140,81 @@ public class ThreadComparisonMixedTask {
     // ----------- Models ------------
 
     private static void runPlatformThreads(int threadCount) throws InterruptedException {
-        CountDownLatch latch = new CountDownLatch(threadCount);
+        CompletionCounter done = new CompletionCounter(threadCount);
         for (int i = 0; i < threadCount; i++) {
+            long submitted = System.nanoTime();
             new Thread(() -> {
                 simulateIOTask();
                 simulateCPUTask();
-                latch.countDown();
+                taskLatencies.recordSince(submitted);
+                done.complete();
             }).start();
         }
-        latch.await();
+        done.await();
     }
 
     private static void runVirtualThreads(int threadCount) throws InterruptedException {
-        CountDownLatch latch = new CountDownLatch(threadCount);
+        CompletionCounter done = new CompletionCounter(threadCount);
         for (int i = 0; i < threadCount; i++) {
+            long submitted = System.nanoTime();
             Thread.startVirtualThread(() -> {
                 simulateIOTask();
                 simulateCPUTask();
-                latch.countDown();
+                taskLatencies.recordSince(submitted);
+                done.complete();
             });
         }
-        latch.await();
+        done.await();
     }
 
+    // I/O on virtual threads → bounded handoff queue → CPU on a cores-sized platform pool, pipelined per task
     private static void runHybridThreads(int threadCount) throws Exception {
-        // I/O with Virtual
-        CountDownLatch ioLatch = new CountDownLatch(threadCount);
-        for (int i = 0; i < threadCount; i++) {
-            Thread.startVirtualThread(() -> {
-                simulateIOTask();
-                ioLatch.countDown();
-            });
-        }
-        ioLatch.await();
-
-        // CPU with Platform (thread pool)
-        ExecutorService cpuPool = Executors.newFixedThreadPool(100);
-        List<Future<?>> futures = new ArrayList<>();
-        for (int i = 0; i < threadCount; i++) {
-            futures.add(cpuPool.submit(ThreadComparisonMixedTask::simulateCPUTask));
+        try (PipelineExecutor pipeline = new PipelineExecutor(
+                taskId -> simulateIOTask(), taskId -> simulateCPUTask(), 0, PIPELINE_QUEUE, PIPELINE_IO)) {
+            pipelineStats = pipeline.runAll(threadCount); // measures end-to-end latency across the handoff itself
         }
-        for (Future<?> f : futures) f.get();
-        cpuPool.shutdown();
     }
 
     // ----------- Tasks ------------
 
     private static void simulateIOTask() {
-        try {
-            Thread.sleep(10); // Simulate I/O delay
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-        }
+        IO_WORKLOAD.run(0);
     }
 
     private static void simulateCPUTask() {
-        // CPU-bound: simple prime calculation
-        int count = 0;
-        for (int num = 2; num < 5000; num++) {
-            if (isPrime(num)) count++;
-        }
-    }
-
-    private static boolean isPrime(int num) {
-        for (int i = 2; i * i <= num; i++) {
-            if (num % i == 0) return false;
-        }
-        return true;
+        CPU_WORKLOAD.run(0);
     }
 
     // ----------- Utils ------------
 
-    private static long getUsedMemory() {
-        return Runtime.getRuntime().totalMemory() - Runtime.getRuntime().freeMemory();
+    private static void printPipelineSummary(PipelineExecutor.Stats stats) {
+        System.out.printf("🔗 Pipeline → Handoff Wait p50: %.2f ms | p99: %.2f ms | Peak Queue: %d | I/O blocked on handoff (sum): %.2f ms | Admission blocked: %.2f ms | Failed: %d%n",
+                stats.handoffWait().percentile(50) / 1_000_000.0, stats.handoffWait().percentile(99) / 1_000_000.0,
+                stats.peakQueueDepth(), stats.handoffBlockedNanos() / 1_000_000.0, stats.admissionBlockedNanos() / 1_000_000.0,
+                stats.failedTasks());
     }
 
-    private static long getCpuTime() {
-        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
-        return Arrays.stream(bean.getAllThreadIds())
-                .map(bean::getThreadCpuTime)
-                .filter(t -> t != -1)
-                .reduce(0L, Long::sum);
+    private static void printNativeMemorySummary(NativeMemorySampler.Summary memory, String model, int threadCount) {
+        NativeMemorySampler.Sample peak = memory.peak();
+        System.out.printf("🧠 Memory → Peak RSS: %.2f MB | Peak Thread Stacks: %.2f MB (%d NMT threads) | Heap: %.2f MB | Metaspace: %.2f MB | Stack/Thread: %.2f KB | RSS/Thread: %.2f KB%n",
+                peak.rssKB() / 1024.0, peak.stackCommittedKB() / 1024.0, peak.nmtThreads(),
+                peak.heapCommittedKB() / 1024.0, peak.metaspaceCommittedKB() / 1024.0,
+                memory.stackPerThreadKB(threadCount), memory.rssPerThreadKB(threadCount));
+
+        String filename = "memory_timeline_" + model + "_" + threadCount + ".csv";
+        Path timeline = RESULTS.csvPath().resolveSibling(filename);
+        memory.writeTimeline(timeline);
+        System.out.println("📂 Memory timeline → " + timeline);
     }
 
-    private static void printNativeMemorySummary(long pid, String model, int threadCount) {
-        try {
-            ProcessBuilder pb = new ProcessBuilder("jcmd", String.valueOf(pid), "VM.native_memory", "summary");
-            Process process = pb.start();
-
-            Scanner scanner = new Scanner(process.getInputStream());
-            String filename = "nmt_output_" + model + "_" + threadCount + ".txt";
-            BufferedWriter bw = new BufferedWriter(new FileWriter(filename));
-
-            System.out.println("===== NMT Report for " + model + " with " + threadCount + " threads =====");
-            bw.write("===== NMT Report for " + model + " with " + threadCount + " threads =====\n");
-
-            while (scanner.hasNextLine()) {
-                String line = scanner.nextLine();
-                if (line.contains("Thread")) {
-                    System.out.println(line);
-                    bw.write(line + "\n");
-                }
-            }
-
-            bw.close();
-            scanner.close();
-            process.waitFor();
-        } catch (Exception e) {
-            System.err.println("NMT command failed: " + e.getMessage());
-        }
+    private static void printResourceSummary(ResourceSampler.Summary resources, String model, int threadCount) {
+        System.out.printf("📊 Resources → %s | Heap/Thread (from peak): %.2f KB%n",
+                resources, resources.heapPerThreadKB(threadCount));
+
+        Path timeline = RESULTS.csvPath().resolveSibling("resource_timeline_" + model + "_" + threadCount + ".csv");
+        Path pauses = RESULTS.csvPath().resolveSibling("gc_pauses_" + model + "_" + threadCount + ".csv");
+        resources.writeTimeline(timeline);
+        resources.writePauses(pauses);
+        System.out.println("📂 Resource timeline → " + timeline + ", GC pauses → " + pauses);
     }
 }
@@ -1,3 +1,5 @@
+import os
+import sys
 import matplotlib.pyplot as plt
 import seaborn as sns
 import pandas as pd
@@ -38,7 +40,14 @@ data = {
     ]
 }
 
-df = pd.DataFrame(data)
+# Results written by ThreadComparisonMixedTask (results_ThreadComparisonMixedTask.csv); pass another results file as the first argument.
+# The published table above is used when no results file exists.
+RESULTS = sys.argv[1] if len(sys.argv) > 1 else os.path.join(
+    os.path.dirname(os.path.abspath(__file__)), "..", "code", "results_ThreadComparisonMixedTask.csv")
+if os.path.exists(RESULTS):
+    df = pd.read_csv(RESULTS, comment="#")
+else:
+    df = pd.DataFrame(data)
 
 # Unique thread counts and models
 thread_counts = sorted(df['Thread Count'].unique())
@@ -1,54 +1,131 @@
 import java.time.Duration;
 import java.time.Instant;
-import java.util.*;
+import java.util.List;
 import java.util.concurrent.*;
 
+import loombench.harness.CompletionCounter;
+import loombench.harness.Config;
+import loombench.harness.HybridExecutor;
+import loombench.harness.LatencyRecorder;
+import loombench.harness.load.OpenLoopMode;
+import loombench.harness.results.ResultsFile;
+import loombench.harness.sampling.PinningMonitor;
+import loombench.harness.workload.PoolContention;
+import loombench.harness.workload.Workload;
+import loombench.harness.workload.Workloads;
+
 public class MixedThreadBenchmark {
 
-    static int[] THREAD_COUNTS = {1000, 5000, 10000,20000}; // You can modify as needed
+    // Override with -Dcounts=... / -Dpool=... / -Dhybrid.pool=...
+    static int[] THREAD_COUNTS = Config.intList("counts", 1000, 5000, 10000, 20000);
+    static final int PLATFORM_POOL = Config.intValue("pool", 200);
+    static final int HYBRID_POOL = Config.intValue("hybrid.pool", 100);
+    static final PinningMonitor PINNING = PinningMonitor.fromProperty(); // -Dpinning
+    static final ResultsFile RESULTS = ResultsFile.forBenchmark("MixedThreadBenchmark");
+    // Fixed arrival rate instead of N tasks at once: -Dload=poisson:rate=500 or -Dload=saturation
+    static final OpenLoopMode OPEN_LOOP = OpenLoopMode.fromProperties();
+    // Open-loop rows have no Thread Count/Time/Creation, so they stay out of the file graph.py reads
+    static final ResultsFile OPEN_LOOP_RESULTS = ResultsFile.forBenchmark("MixedThreadBenchmark_openloop");
+
+    // Override with -Dio.workload=<spec> / -Dcpu.workload=<spec>
+    static final Workload IO_WORKLOAD = Workloads.fromProperty("io.workload", "sleep:millis=60/90");
+    static final Workload CPU_WORKLOAD = Workloads.fromProperty("cpu.workload", "primes:limit=5000");
+    // Every CPU task's result is stored here so the JIT cannot drop the kernel as dead code
+    static long sink;
+
+    // Routes "io" and "cpu" tasks by measured CPU/wall time; shared by every run so it keeps what it learned
+    static final HybridExecutor ADAPTIVE = new HybridExecutor();
+
+    // Structured runs: -Dstructured.fail=N makes the I/O part of every Nth request fail (0 = never)
+    static final int STRUCTURED_FAIL_EVERY = Config.intValue("structured.fail", 0);
+
+    // Connection-pool contention: Platform/Virtual/Hybrid again per pool, e.g. -Ddb.pools=synchronized,lock,lockfree
+    // (-Ddb.connections=50, -Ddb.timeout.ms=30000)
+    static final List<String> DB_POOLS = PoolContention.poolsFromProperty();
 
     public static void main(String[] args) throws Exception {
-        for (int count : THREAD_COUNTS) {
-            System.out.println("\n===== Benchmark: " + count + " Threads =====");
-            runPlatformThreads(count);
-            runVirtualThreads(count);
-            runHybridThreads(count); // I/O on virtual, CPU on platform
+        learnAdaptiveRouting();
+        PINNING.drain(); // drop start-up and learning events
+
+        if (OPEN_LOOP.enabled()) {
+            runOpenLoop();
+        } else {
+            for (int count : THREAD_COUNTS) {
+                System.out.println("\n===== Benchmark: " + count + " Threads =====");
+                runPlatformThreads(count);
+                runVirtualThreads(count);
+                runHybridThreads(count); // I/O on virtual, CPU on platform
+                runAdaptiveThreads(count); // same split, routing learned by HybridExecutor
+                runStructuredThreads(count, false); // nested ShutdownOnFailure scope per request, I/O then CPU like Virtual
+                runStructuredThreads(count, true); // same, with I/O and CPU forked side by side
+                runHedgedThreads(count); // ShutdownOnSuccess over two I/O replicas per request
+                for (String pool : DB_POOLS) {
+                    // I/O part holds one of the pool's connections
+                    PoolContention.runWith(pool, () -> {
+                        runPlatformThreads(count);
+                        runVirtualThreads(count);
+                        runHybridThreads(count);
+                    });
+                }
+            }
         }
+
+        ADAPTIVE.close();
+        PINNING.close();
+        ResultsFile results = OPEN_LOOP.enabled() ? OPEN_LOOP_RESULTS : RESULTS;
+        results.write();
+        System.out.println("\nResults → " + results.csvPath() + ", " + results.jsonPath());
     }
 
-    // Simulated I/O task
-    public static void simulateIOTask() {
-        try {
-            Thread.sleep(60); // Simulated network delay
-            Thread.sleep(90); // Simulated DB delay
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-        }
+    // Same models, but tasks arrive on a schedule and latency counts from the intended start.
+    // Hybrid and Adaptive split arrivals like the closed runs: even ids CPU-only, odd ids I/O-only.
+    public static void runOpenLoop() throws InterruptedException {
+        System.out.println("\n===== Open-loop: " + OPEN_LOOP.description() + " =====");
+        ExecutorService platform = Executors.newFixedThreadPool(PLATFORM_POOL);
+        ExecutorService hybridPlatform = Executors.newFixedThreadPool(HYBRID_POOL);
+        ExecutorService virtual = Executors.newVirtualThreadPerTaskExecutor();
+        Executor adaptiveCpu = task -> ADAPTIVE.execute("cpu", task);
+        Executor adaptiveIo = task -> ADAPTIVE.execute("io", task);
+
+        OPEN_LOOP.run("Platform", platform, taskId -> runMixedTask(), OPEN_LOOP_RESULTS);
+        OPEN_LOOP.run("Virtual", virtual, taskId -> runMixedTask(), OPEN_LOOP_RESULTS);
+        OPEN_LOOP.runRouted("Hybrid", taskId -> taskId % 2 == 0 ? hybridPlatform : virtual,
+                MixedThreadBenchmark::runSplitTask, OPEN_LOOP_RESULTS);
+        OPEN_LOOP.runRouted("Adaptive", taskId -> taskId % 2 == 0 ? adaptiveCpu : adaptiveIo,
+                MixedThreadBenchmark::runSplitTask, OPEN_LOOP_RESULTS);
+
+        platform.shutdown();
+        hybridPlatform.shutdown();
+        virtual.shutdown();
     }
 
-    // Simulated CPU-intensive task (prime number summation)
-    public static void simulateCPUTask() {
-        long sum = 0;
-        for (int i = 2; i < 5000; i++) {
-            if (isPrime(i)) {
-                sum += i;
-            }
+    static void runMixedTask() {
+        if (simulateIOTask()) {
+            simulateCPUTask();
         }
     }
 
-    public static boolean isPrime(int n) {
-        if (n <= 1) return false;
-        if (n <= 3) return true;
-        if (n % 2 == 0 || n % 3 == 0) return false;
-        for (int i = 5; i * i <= n; i += 6) {
-            if (n % i == 0 || n % (i + 2) == 0) return false;
+    static void runSplitTask(int taskId) {
+        if (taskId % 2 == 0) {
+            simulateCPUTask();
+        } else {
+            simulateIOTask();
         }
-        return true;
+    }
+
+    // Simulated I/O task; false when a contention run's pool had no connection for it in time
+    public static boolean simulateIOTask() {
+        return PoolContention.query(() -> IO_WORKLOAD.run(0));
+    }
+
+    // Simulated CPU-intensive task (prime number summation)
+    public static void simulateCPUTask() {
+        sink = CPU_WORKLOAD.run(0);
     }
 
     // Run all mixed tasks (both I/O + CPU) on platform threads
     public static void runPlatformThreads(int threadCount) throws InterruptedException {
-        ExecutorService executor = Executors.newFixedThreadPool(200);
+        ExecutorService executor = Executors.newFixedThreadPool(PLATFORM_POOL);
         runBenchmark("Platform", threadCount, executor, true);
     }
 
@@ -61,11 +138,11 @@ public class MixedThreadBenchmark {
     // Run I/O tasks on virtual threads, CPU tasks on platform threads
     public static void runHybridThreads(int threadCount) throws InterruptedException {
         int half = threadCount / 2;
-        ExecutorService platform = Executors.newFixedThreadPool(100); // CPU tasks
+        ExecutorService platform = Executors.newFixedThreadPool(HYBRID_POOL); // CPU tasks
         ExecutorService virtual = Executors.newVirtualThreadPerTaskExecutor(); // I/O tasks
 
-        List<Long> latencies = Collections.synchronizedList(new ArrayList<>());
-        CountDownLatch latch = new CountDownLatch(threadCount);
+        LatencyRecorder latencies = new LatencyRecorder();
+        CompletionCounter done = new CompletionCounter(threadCount);
 
         Instant creationStart = Instant.now();
 
@@ -73,7 +150,7 @@ public class MixedThreadBenchmark {
         for (int i = 0; i < half; i++) {
             platform.submit(() -> {
                 recordCPULatency(latencies);
-                latch.countDown();
+                done.complete();
             });
         }
 
@@ -81,7 +158,7 @@ public class MixedThreadBenchmark {
         for (int i = 0; i < threadCount - half; i++) {
             virtual.submit(() -> {
                 recordIOLatency(latencies);
-                latch.countDown();
+                done.complete();
             });
         }
 
@@ -89,7 +166,7 @@ public class MixedThreadBenchmark {
         Duration creationTime = Duration.between(creationStart, creationEnd);
 
         Instant start = Instant.now();
-        latch.await();
+        done.await();
         Instant end = Instant.now();
 
         platform.shutdown();
@@ -98,10 +175,175 @@ public class MixedThreadBenchmark {
         printMetrics("Hybrid", threadCount, latencies, start, end, creationTime);
     }
 
+    // Same I/O + CPU task split as Hybrid, but HybridExecutor picks the executor per task type
+    public static void runAdaptiveThreads(int threadCount) throws InterruptedException {
+        int half = threadCount / 2;
+        LatencyRecorder latencies = new LatencyRecorder();
+        CompletionCounter done = new CompletionCounter(threadCount);
+
+        Instant creationStart = Instant.now();
+        for (int i = 0; i < half; i++) {
+            ADAPTIVE.execute("cpu", () -> {
+                recordCPULatency(latencies);
+                done.complete();
+            });
+        }
+        for (int i = 0; i < threadCount - half; i++) {
+            ADAPTIVE.execute("io", () -> {
+                recordIOLatency(latencies);
+                done.complete();
+            });
+        }
+        Instant creationEnd = Instant.now();
+        Duration creationTime = Duration.between(creationStart, creationEnd);
+
+        Instant start = Instant.now();
+        done.await();
+        Instant end = Instant.now();
+
+        printMetrics("Adaptive", threadCount, latencies, start, end, creationTime);
+        for (HybridExecutor.TypeStats stats : ADAPTIVE.stats()) {
+            System.out.println("           🔀 " + stats);
+        }
+    }
+
+    // Unmeasured pass so the adaptive executor has probed both task types before the first measured run
+    static void learnAdaptiveRouting() throws InterruptedException {
+        CompletionCounter done = new CompletionCounter(200);
+        for (int i = 0; i < 100; i++) {
+            ADAPTIVE.execute("cpu", () -> {
+                simulateCPUTask();
+                done.complete();
+            });
+            ADAPTIVE.execute("io", () -> {
+                simulateIOTask();
+                done.complete();
+            });
+        }
+        done.await();
+    }
+
+    // Fan-out/fan-in: a scope for the run, and per request a nested ShutdownOnFailure scope.
+    // "Structured" forks the I/O part, joins it and then computes, the same io + cpu shape as Virtual;
+    // "Structured-Fanout" forks both parts side by side, so a request takes about max(io, cpu) instead.
+    public static void runStructuredThreads(int threadCount, boolean fanOut) throws InterruptedException {
+        LatencyRecorder latencies = new LatencyRecorder();
+        LatencyRecorder cancellations = new LatencyRecorder();
+
+        Instant creationStart = Instant.now();
+        Instant creationEnd;
+        Instant start;
+        try (var run = new StructuredTaskScope<Void>()) {
+            for (int i = 0; i < threadCount; i++) {
+                final int requestId = i;
+                run.fork(() -> {
+                    handleStructuredRequest(requestId, fanOut, latencies, cancellations);
+                    return null;
+                });
+            }
+            creationEnd = Instant.now();
+            start = Instant.now();
+            run.join();
+        }
+        Instant end = Instant.now();
+
+        // Requests failed on purpose are not completed ones
+        ResultsFile.Row row = printMetrics(fanOut ? "Structured-Fanout" : "Structured", threadCount,
+                cancellations.snapshot().count(), latencies, start, end, Duration.between(creationStart, creationEnd));
+        printCancellations(row, cancellations);
+    }
+
+    // A failed I/O part shuts the request scope down. Fanned out, the CPU sibling is interrupted, but a
+    // compute loop does not check the flag, so the cancellation latency is whatever CPU work it had left;
+    // in sequence the CPU part never starts and the latency is the scope's own shutdown.
+    static void handleStructuredRequest(int requestId, boolean fanOut, LatencyRecorder latencies,
+                                        LatencyRecorder cancellations) throws InterruptedException {
+        long requestStart = System.nanoTime();
+        long[] failedAt = new long[1];
+        try (var request = new StructuredTaskScope.ShutdownOnFailure()) {
+            request.fork(() -> {
+                boolean ran = simulateIOTask(); // a pool timeout already counts as not completed
+                if (ran && STRUCTURED_FAIL_EVERY > 0 && requestId % STRUCTURED_FAIL_EVERY == 0) {
+                    failedAt[0] = System.nanoTime();
+                    throw new IllegalStateException("injected failure in request " + requestId);
+                }
+                return null;
+            });
+            if (fanOut) {
+                request.fork(() -> {
+                    simulateCPUTask();
+                    return null;
+                });
+            }
+            request.join();
+        }
+        // close() has waited for every subtask, so failedAt is visible here
+        if (failedAt[0] != 0) {
+            cancellations.recordSince(failedAt[0]);
+            return;
+        }
+        if (!fanOut) {
+            simulateCPUTask();
+        }
+        latencies.recordSince(requestStart);
+    }
+
+    // Hedged I/O: two replicas of the I/O call, the first result wins and the other is cancelled
+    public static void runHedgedThreads(int threadCount) throws InterruptedException {
+        LatencyRecorder latencies = new LatencyRecorder();
+        LatencyRecorder cancellations = new LatencyRecorder();
+
+        Instant creationStart = Instant.now();
+        Instant creationEnd;
+        Instant start;
+        try (var run = new StructuredTaskScope<Void>()) {
+            for (int i = 0; i < threadCount; i++) {
+                final int requestId = i;
+                run.fork(() -> {
+                    long requestStart = System.nanoTime();
+                    long joined;
+                    try (var hedge = new StructuredTaskScope.ShutdownOnSuccess<Long>()) {
+                        hedge.fork(() -> IO_WORKLOAD.run(requestId));
+                        hedge.fork(() -> IO_WORKLOAD.run(requestId));
+                        hedge.join();
+                        joined = System.nanoTime();
+                    } // close() waits until the losing replica has observed the interrupt
+                    cancellations.recordSince(joined);
+                    simulateCPUTask();
+                    latencies.recordSince(requestStart);
+                    return null;
+                });
+            }
+            creationEnd = Instant.now();
+            start = Instant.now();
+            run.join();
+        }
+        Instant end = Instant.now();
+
+        ResultsFile.Row row = printMetrics("Structured-Any", threadCount, latencies, start, end,
+                Duration.between(creationStart, creationEnd));
+        printCancellations(row, cancellations);
+    }
+
+    // Time from the shutdown trigger (failure or first success) until every sibling has terminated
+    static void printCancellations(ResultsFile.Row row, LatencyRecorder cancellations) {
+        LatencyRecorder.Snapshot cancel = cancellations.snapshot();
+        if (cancel.count() == 0) {
+            return;
+        }
+        System.out.printf("           ✂ Cancellation (ms) -> n: %d | p50: %.3f | p99: %.3f | Max: %.3f%n",
+                cancel.count(), cancel.percentile(50) / 1_000_000.0, cancel.percentile(99) / 1_000_000.0,
+                cancel.max() / 1_000_000.0);
+        row.put("Cancelled", cancel.count())
+                .put("Cancel p50", cancel.percentile(50) / 1_000_000.0)
+                .put("Cancel p99", cancel.percentile(99) / 1_000_000.0)
+                .put("Cancel Max", cancel.max() / 1_000_000.0);
+    }
+
     // Generic benchmark runner
     public static void runBenchmark(String model, int threadCount, ExecutorService executor, boolean runMixedTask) throws InterruptedException {
-        List<Long> latencies = Collections.synchronizedList(new ArrayList<>());
-        CountDownLatch latch = new CountDownLatch(threadCount);
+        LatencyRecorder latencies = new LatencyRecorder();
+        CompletionCounter done = new CompletionCounter(threadCount);
 
         Instant creationStart = Instant.now();
         for (int i = 0; i < threadCount; i++) {
@@ -109,14 +351,14 @@ public class MixedThreadBenchmark {
                 if (runMixedTask) {
                     recordMixedLatency(latencies);
                 }
-                latch.countDown();
+                done.complete();
             });
         }
         Instant creationEnd = Instant.now();
         Duration creationTime = Duration.between(creationStart, creationEnd);
 
         Instant start = Instant.now();
-        latch.await();
+        done.await();
         Instant end = Instant.now();
 
         executor.shutdown();
@@ -124,44 +366,81 @@ public class MixedThreadBenchmark {
         printMetrics(model, threadCount, latencies, start, end, creationTime);
     }
 
-    // Record latency for both I/O + CPU task
-    public static void recordMixedLatency(List<Long> latencies) {
-        Instant taskStart = Instant.now();
-        simulateIOTask();
+    // Record latency for both I/O + CPU task; a request whose I/O part timed out skips its CPU part and records nothing
+    public static void recordMixedLatency(LatencyRecorder latencies) {
+        long taskStart = System.nanoTime();
+        if (!simulateIOTask()) {
+            return;
+        }
         simulateCPUTask();
-        Instant taskEnd = Instant.now();
-        long latency = Duration.between(taskStart, taskEnd).toMillis();
-        latencies.add(latency);
+        latencies.recordSince(taskStart);
     }
 
     // Record latency for CPU-only (Hybrid model)
-    public static void recordCPULatency(List<Long> latencies) {
-        Instant taskStart = Instant.now();
+    public static void recordCPULatency(LatencyRecorder latencies) {
+        long taskStart = System.nanoTime();
         simulateCPUTask();
-        Instant taskEnd = Instant.now();
-        long latency = Duration.between(taskStart, taskEnd).toMillis();
-        latencies.add(latency);
+        latencies.recordSince(taskStart);
     }
 
     // Record latency for IO-only (Hybrid model)
-    public static void recordIOLatency(List<Long> latencies) {
-        Instant taskStart = Instant.now();
-        simulateIOTask();
-        Instant taskEnd = Instant.now();
-        long latency = Duration.between(taskStart, taskEnd).toMillis();
-        latencies.add(latency);
+    public static void recordIOLatency(LatencyRecorder latencies) {
+        long taskStart = System.nanoTime();
+        if (simulateIOTask()) {
+            latencies.recordSince(taskStart);
+        }
+    }
+
+    public static ResultsFile.Row printMetrics(String model, int threadCount, LatencyRecorder latencies,
+                                    Instant start, Instant end, Duration creationTime) {
+        return printMetrics(model, threadCount, 0, latencies, start, end, creationTime);
     }
 
-    // Print results
-    public static void printMetrics(String model, int threadCount, List<Long> latencies,
+    // Print results; failed requests and those whose I/O part timed out waiting for a connection
+    // do not count in Throughput
+    public static ResultsFile.Row printMetrics(String model, int threadCount, long failed, LatencyRecorder latencies,
                                     Instant start, Instant end, Duration creationTime) {
+        PoolContention.Report contention = PoolContention.drain();
+        int completed = (int) (threadCount - failed - (contention == null ? 0 : contention.timeouts()));
         Duration duration = Duration.between(start, end);
         double totalTimeSec = duration.toMillis() / 1000.0;
-        double throughput = threadCount / totalTimeSec;
-        double avgLatency = latencies.stream().mapToLong(Long::longValue).average().orElse(-1);
+        double throughput = completed / totalTimeSec;
+        LatencyRecorder.Snapshot latency = latencies.snapshot();
+        double avgLatency = latency.count() == 0 ? -1 : latency.mean() / 1_000_000.0;
         long creationTimeMs = creationTime.toMillis();
 
-        System.out.printf("Model: %-9s | Threads: %-6d | Time: %.2fs | Throughput: %.2f req/sec | Avg Latency: %.2f ms | Creation Time: %d ms%n",
-                model, threadCount, totalTimeSec, throughput, avgLatency, creationTimeMs);
+        System.out.printf("Model: %-9s | Threads: %-6d | Completed: %-6d | Time: %.2fs | Throughput: %.2f req/sec | Avg Latency: %.2f ms | Creation Time: %d ms%n",
+                model, threadCount, completed, totalTimeSec, throughput, avgLatency, creationTimeMs);
+        System.out.printf("           Latency (ms) -> p50: %.2f | p90: %.2f | p99: %.2f | p99.9: %.2f | Max: %.2f%n",
+                latency.percentile(50) / 1_000_000.0, latency.percentile(90) / 1_000_000.0,
+                latency.percentile(99) / 1_000_000.0, latency.percentile(99.9) / 1_000_000.0,
+                latency.max() / 1_000_000.0);
+
+        ResultsFile.Row row = RESULTS.row()
+                .put("Thread Count", threadCount)
+                .put("Model", model)
+                .put("Completed", completed)
+                .put("Time", totalTimeSec)
+                .put("Throughput", throughput)
+                .put("Latency", avgLatency)
+                .put("Creation", creationTimeMs)
+                .put("p50", latency.percentile(50) / 1_000_000.0)
+                .put("p90", latency.percentile(90) / 1_000_000.0)
+                .put("p99", latency.percentile(99) / 1_000_000.0)
+                .put("p99.9", latency.percentile(99.9) / 1_000_000.0)
+                .put("Max", latency.max() / 1_000_000.0);
+
+        if (contention != null) {
+            System.out.println("           🔒 Acquire wait (ms) -> " + contention);
+            contention.addTo(row);
+        }
+
+        // Everything since the previous model's printMetrics
+        PinningMonitor.Report pinning = PINNING.drain();
+        if (PINNING.enabled()) {
+            System.out.println("           📌 Pinning -> " + pinning);
+            pinning.addTo(row);
+        }
+        return row;
     }
 }
@@ -1,3 +1,5 @@
+import os
+import sys
 import matplotlib.pyplot as plt
 import seaborn as sns
 import pandas as pd
@@ -25,7 +27,18 @@ data = [
 ]
 
 # Convert to DataFrame
-df = pd.DataFrame(data)
+# Results written by MixedThreadBenchmark (results_MixedThreadBenchmark.csv); pass another results file as the first argument.
+# The published table above is used when no results file exists.
+RESULTS = sys.argv[1] if len(sys.argv) > 1 else os.path.join(
+    os.path.dirname(os.path.abspath(__file__)), "..", "code", "results_MixedThreadBenchmark.csv")
+if os.path.exists(RESULTS):
+    df = pd.read_csv(RESULTS, comment="#")
+else:
+    df = pd.DataFrame(data)
+
+# Contention reruns (-Ddb.pools) repeat every Model once per Pool; give each pool its own bars
+if "Pool" in df.columns:
+    df["Model"] = df.apply(lambda row: row["Model"] + (f" ({row['Pool']})" if pd.notna(row["Pool"]) else ""), axis=1)
 
 # Set up subplots
 fig, axs = plt.subplots(2, 2, figsize=(14, 10))
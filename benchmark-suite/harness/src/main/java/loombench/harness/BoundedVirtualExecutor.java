@@ -0,0 +1,106 @@
+package loombench.harness;
+
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Virtual thread per task, but at most {@code permits} of them running at
+ * once. {@link #execute(Runnable)} takes a permit before starting the thread
+ * and the thread returns it when the task ends. Once all permits are out,
+ * the submitting thread blocks: backpressure reaches the producer instead of
+ * piling up parked virtual threads in front of the downstream resource.
+ *
+ * <p>This is the bulkhead sizing knob. Fewer permits protect the database or
+ * HTTP client behind the task. More permits cut queueing until the resource
+ * itself saturates. {@link #submitterBlockedNanos()} reports how long
+ * producers were held back.
+ */
+public final class BoundedVirtualExecutor extends AbstractExecutorService {
+
+    private final int permits;
+    private final Semaphore running;
+    private final LongAdder blockedNanos = new LongAdder();
+    private volatile boolean shutdown;
+
+    public BoundedVirtualExecutor(int permits) {
+        if (permits <= 0) {
+            throw new IllegalArgumentException("permits must be positive, got " + permits);
+        }
+        this.permits = permits;
+        this.running = new Semaphore(permits);
+    }
+
+    public int permits() {
+        return permits;
+    }
+
+    /** Total time submitters spent waiting for a permit. */
+    public long submitterBlockedNanos() {
+        return blockedNanos.sum();
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        if (shutdown) {
+            throw new RejectedExecutionException("Executor is shut down");
+        }
+        if (!running.tryAcquire()) {
+            long start = System.nanoTime();
+            try {
+                running.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RejectedExecutionException("Interrupted while waiting for a permit", e);
+            } finally {
+                blockedNanos.add(System.nanoTime() - start);
+            }
+        }
+        try {
+            CarrierScheduler.startVirtualThread(() -> {
+                try {
+                    task.run();
+                } finally {
+                    running.release();
+                }
+            });
+        } catch (RuntimeException | Error e) {
+            running.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        shutdown = true;
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        shutdown();
+        return List.of();
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return shutdown;
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return shutdown && running.availablePermits() == permits;
+    }
+
+    /** Running tasks hold a permit each, so termination is getting all of them back. */
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        if (!running.tryAcquire(permits, timeout, unit)) {
+            return false;
+        }
+        running.release(permits);
+        return true;
+    }
+}
@@ -0,0 +1,105 @@
+package loombench.harness;
+
+import java.lang.reflect.Constructor;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.TimeUnit;
+
+import loombench.harness.sampling.CarrierThreadSampler;
+
+/**
+ * Where the {@link ThreadModel#VIRTUAL} model mounts its virtual threads,
+ * chosen with {@code -Dcarrier.scheduler}:
+ * <ul>
+ *   <li>{@code default}: the JDK's shared ForkJoinPool, sized by
+ *       {@code -Djdk.virtualThreadScheduler.parallelism} and
+ *       {@code -Djdk.virtualThreadScheduler.maxPoolSize};</li>
+ *   <li>{@code forkjoin}: a private ForkJoinPool built like the JDK's (FIFO,
+ *       work stealing, compensation up to maxPoolSize) from the same two
+ *       properties. Its workers are {@code jdk.internal.misc.CarrierThread}s
+ *       like the JDK's, because {@code Blocker} only compensates for file I/O
+ *       and {@code Object.wait()} on a {@code CarrierThread};</li>
+ *   <li>{@code fixed}: a fixed pool of {@code parallelism} platform threads on
+ *       one FIFO queue, i.e. no work stealing and no compensation. Its threads
+ *       are named {@value CarrierThreadSampler#FIXED_CARRIER_PREFIX}N so that
+ *       {@link CarrierThreadSampler} can count them.</li>
+ * </ul>
+ * Java 21 has no public API for a custom scheduler. The custom ones go through
+ * the JDK's internal {@code VirtualThreadBuilder(Executor)} constructor and
+ * need {@code --add-opens java.base/java.lang=ALL-UNNAMED}; {@code forkjoin}
+ * also needs {@code --add-exports java.base/jdk.internal.misc=ALL-UNNAMED}.
+ * Without them they fail with an {@link IllegalStateException} instead of
+ * quietly falling back.
+ */
+public final class CarrierScheduler {
+
+    private static final String NAME = System.getProperty("carrier.scheduler", "default");
+    private static final Thread.Builder.OfVirtual BUILDER = builder(NAME);
+
+    private CarrierScheduler() {
+    }
+
+    /** Scheduler selected for this JVM. */
+    public static String name() {
+        return NAME;
+    }
+
+    /** Starts a virtual thread on the selected scheduler. */
+    public static Thread startVirtualThread(Runnable task) {
+        return BUILDER.start(task);
+    }
+
+    static Thread.Builder.OfVirtual builder(String name) {
+        int parallelism = CarrierThreadSampler.parallelism();
+        int maxPoolSize = Math.max(parallelism, Integer.getInteger("jdk.virtualThreadScheduler.maxPoolSize", 256));
+        Executor scheduler = switch (name) {
+            case "default" -> null;
+            case "forkjoin" -> new ForkJoinPool(parallelism, carrierThreadFactory(), null,
+                    true, 0, maxPoolSize, 1, pool -> true, 30, TimeUnit.SECONDS);
+            case "fixed" -> Executors.newFixedThreadPool(parallelism,
+                    Thread.ofPlatform().daemon().name(CarrierThreadSampler.FIXED_CARRIER_PREFIX, 0).factory());
+            default -> throw new IllegalArgumentException("Unknown carrier scheduler '" + name
+                    + "' (expected default, forkjoin or fixed)");
+        };
+        if (scheduler == null) {
+            return Thread.ofVirtual();
+        }
+        try {
+            Class<?> type = Class.forName("java.lang.ThreadBuilders$VirtualThreadBuilder");
+            Constructor<?> constructor = type.getDeclaredConstructor(Executor.class);
+            constructor.setAccessible(true);
+            return (Thread.Builder.OfVirtual) constructor.newInstance(scheduler);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            throw new IllegalStateException("carrier.scheduler=" + name
+                    + " needs --add-opens java.base/java.lang=ALL-UNNAMED", e);
+        }
+    }
+
+    /**
+     * Creates workers as the JDK's {@code CarrierThread}, like the default
+     * scheduler does. The export is checked up front: a factory that throws
+     * inside the pool would leave it without workers and the run hanging.
+     */
+    private static ForkJoinPool.ForkJoinWorkerThreadFactory carrierThreadFactory() {
+        Constructor<?> constructor;
+        try {
+            Class<?> type = Class.forName("jdk.internal.misc.CarrierThread");
+            if (!type.getModule().isExported(type.getPackageName(), CarrierScheduler.class.getModule())) {
+                throw new IllegalStateException("carrier.scheduler=forkjoin"
+                        + " needs --add-exports java.base/jdk.internal.misc=ALL-UNNAMED");
+            }
+            constructor = type.getConstructor(ForkJoinPool.class);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("carrier.scheduler=forkjoin needs jdk.internal.misc.CarrierThread", e);
+        }
+        return pool -> {
+            try {
+                return (ForkJoinWorkerThread) constructor.newInstance(pool);
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("Could not create a carrier thread", e);
+            }
+        };
+    }
+}
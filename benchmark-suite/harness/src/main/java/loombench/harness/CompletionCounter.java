@@ -0,0 +1,152 @@
+package loombench.harness;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Completion tracking for one batch of tasks: a {@code CountDownLatch} and a
+ * completed-task {@code AtomicInteger} in one, without the single counter
+ * every completing thread CASes twice.
+ *
+ * <p>The expected count is split into quotas over a few cells, padded onto
+ * separate cache lines. {@link #complete()} takes one from the cell picked
+ * by the calling thread's id, moving on to the next cell once that one is
+ * used up. Only the completion that empties a cell touches the shared
+ * cell count, so a batch of 100k tasks does a handful of shared CASes
+ * instead of 200k. The completion that empties the last cell unparks the
+ * waiter.
+ *
+ * <p>Cells only ever go down, so a {@code complete()} that finds every cell
+ * empty is one more than expected and throws. One thread may wait at a time.
+ */
+public final class CompletionCounter {
+
+    // Longs per cell: 128 bytes keeps neighbours off each other's line, adjacent-line prefetch included
+    private static final int PAD = 16;
+
+    private final int expected;
+    private final int cells;
+    private final AtomicLongArray remaining;
+    private final AtomicInteger openCells;
+    private volatile boolean done;
+    private volatile Thread waiter;
+
+    /** Expects {@code expected} completions, over two cells per available processor. */
+    public CompletionCounter(int expected) {
+        this(expected, 2 * Runtime.getRuntime().availableProcessors());
+    }
+
+    public CompletionCounter(int expected, int cells) {
+        if (expected < 0) {
+            throw new IllegalArgumentException("Expected completions must not be negative, got " + expected);
+        }
+        if (cells <= 0) {
+            throw new IllegalArgumentException("Cell count must be positive, got " + cells);
+        }
+        this.expected = expected;
+        this.cells = Math.max(1, Math.min(cells, expected));
+        this.remaining = new AtomicLongArray(this.cells * PAD);
+        for (int i = 0; i < this.cells; i++) {
+            remaining.set(i * PAD, expected / this.cells + (i < expected % this.cells ? 1 : 0));
+        }
+        this.openCells = new AtomicInteger(expected == 0 ? 0 : this.cells);
+        this.done = expected == 0;
+    }
+
+    /** Records one finished task; call last thing in the task body. */
+    public void complete() {
+        int first = (int) Math.floorMod(Thread.currentThread().threadId(), (long) cells);
+        for (int i = 0; i < cells; i++) {
+            int index = ((first + i) % cells) * PAD;
+            long left;
+            while ((left = remaining.get(index)) > 0) {
+                if (remaining.compareAndSet(index, left, left - 1)) {
+                    if (left == 1 && openCells.decrementAndGet() == 0) {
+                        signal();
+                    }
+                    return;
+                }
+            }
+        }
+        throw new IllegalStateException("More than " + expected + " completions");
+    }
+
+    private void signal() {
+        done = true;
+        Thread parked = waiter;
+        if (parked != null) {
+            LockSupport.unpark(parked);
+        }
+    }
+
+    /** Waits until every expected task has completed. */
+    public void await() throws InterruptedException {
+        if (done) {
+            return;
+        }
+        enter();
+        try {
+            while (!done) {
+                LockSupport.park(this);
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+            }
+        } finally {
+            waiter = null;
+        }
+    }
+
+    /** Waits at most {@code timeout}; returns whether every expected task completed. */
+    public boolean await(long timeout, TimeUnit unit) throws InterruptedException {
+        if (done) {
+            return true;
+        }
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        enter();
+        try {
+            while (!done) {
+                long left = deadline - System.nanoTime();
+                if (left <= 0) {
+                    return false;
+                }
+                LockSupport.parkNanos(this, left);
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+            }
+            return true;
+        } finally {
+            waiter = null;
+        }
+    }
+
+    // Publishes the waiter before the caller re-reads done; signal() writes done before reading waiter
+    private void enter() {
+        Thread current = Thread.currentThread();
+        Thread other = waiter;
+        if (other != null && other != current) {
+            throw new IllegalStateException("Already awaited by " + other);
+        }
+        waiter = current;
+    }
+
+    public boolean isDone() {
+        return done;
+    }
+
+    public int expected() {
+        return expected;
+    }
+
+    /** Tasks completed so far; exact once {@link #isDone()}, a moving estimate before. */
+    public int completed() {
+        long left = 0;
+        for (int i = 0; i < cells; i++) {
+            left += remaining.get(i * PAD);
+        }
+        return (int) (expected - left);
+    }
+}
@@ -0,0 +1,34 @@
+package loombench.harness;
+
+/**
+ * System-property overrides for the standalone benchmark classes, so thread
+ * counts and pool sizes can change per run without editing and recompiling:
+ *
+ * <pre>
+ * java -Dcounts=1000,5000 -Dpool=400 IOThreadBenchmark
+ * </pre>
+ */
+public final class Config {
+
+    private Config() {
+    }
+
+    /** Comma-separated int list from {@code property}, or {@code defaults}. */
+    public static int[] intList(String property, int... defaults) {
+        String value = System.getProperty(property);
+        if (value == null || value.isBlank()) {
+            return defaults;
+        }
+        String[] items = value.split(",");
+        int[] result = new int[items.length];
+        for (int i = 0; i < items.length; i++) {
+            result[i] = Integer.parseInt(items[i].trim().replace("_", ""));
+        }
+        return result;
+    }
+
+    public static int intValue(String property, int defaultValue) {
+        String value = System.getProperty(property);
+        return value == null || value.isBlank() ? defaultValue : Integer.parseInt(value.trim().replace("_", ""));
+    }
+}
@@ -0,0 +1,156 @@
+package loombench.harness;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Hybrid executor that decides per task type, from observed behaviour, whether
+ * work belongs on a cores-sized platform pool or on virtual threads.
+ *
+ * <p>Every task is submitted with a type key. For each type the executor keeps
+ * the ratio of CPU time to wall time: types that mostly compute (ratio at or
+ * above the threshold) go to the platform pool, where at most one task per core
+ * runs and nothing time-slices; types that mostly block go to virtual threads.
+ *
+ * <p>The JDK cannot report CPU time of a virtual thread, so the ratio is
+ * measured on probe runs: the first {@value #PROBE_SAMPLES} tasks of a type and
+ * every {@value #REPROBE_EVERY}th after that run on a dedicated platform thread.
+ * At most one probe per core is in flight; a task that would exceed that is
+ * routed normally. Until the first probe finishes a type is routed to virtual
+ * threads, which is never worse than the all-virtual model. Keep one executor
+ * for the lifetime of a benchmark (warm-up included) so measured runs use what
+ * it learned.
+ *
+ * <p>Probes compete with the platform pool and the carriers for cores, which
+ * deflates the ratio of CPU-bound types under load; the default threshold is
+ * low enough to absorb that while blocking types stay well below it.
+ */
+public final class HybridExecutor implements AutoCloseable {
+
+    /** CPU time / wall time at or above which a type counts as CPU-bound. */
+    public static final double DEFAULT_CPU_RATIO = 0.2;
+    static final int PROBE_SAMPLES = 8;
+    static final int REPROBE_EVERY = 64;
+    /** Weight of the newest probe, so a type whose behaviour changes is re-routed within a few probes. */
+    static final double SMOOTHING = 0.25;
+
+    public enum Route { PLATFORM, VIRTUAL, PROBE }
+
+    /** What the executor learned about one task type. */
+    public record TypeStats(String type, double cpuRatio, Route route,
+                            long platformRuns, long virtualRuns, long probeRuns) {
+        @Override
+        public String toString() {
+            return String.format("%s → %s (cpu/wall %.2f | platform: %d | virtual: %d | probes: %d)",
+                    type, route, cpuRatio, platformRuns, virtualRuns, probeRuns);
+        }
+    }
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    private final ExecutorService platform;
+    private final ExecutorService probes = Executors.newCachedThreadPool(
+            Thread.ofPlatform().daemon().name("hybrid-probe-", 0).factory());
+    private final Semaphore probeSlots = new Semaphore(Runtime.getRuntime().availableProcessors());
+    private final double cpuRatioThreshold;
+    private final ConcurrentHashMap<String, TaskType> types = new ConcurrentHashMap<>();
+
+    /** Cores-sized platform pool and the default threshold. */
+    public HybridExecutor() {
+        this(Runtime.getRuntime().availableProcessors(), DEFAULT_CPU_RATIO);
+    }
+
+    public HybridExecutor(int platformThreads, double cpuRatioThreshold) {
+        this.platform = Executors.newFixedThreadPool(ThreadModel.sizeOrCores(platformThreads));
+        this.cpuRatioThreshold = cpuRatioThreshold;
+    }
+
+    /** Runs {@code task} on the executor chosen for {@code type}. */
+    public void execute(String type, Runnable task) {
+        TaskType stats = types.computeIfAbsent(type, TaskType::new);
+        switch (stats.nextRoute()) {
+            case PLATFORM -> {
+                stats.platformRuns.increment();
+                platform.execute(task);
+            }
+            case VIRTUAL -> {
+                stats.virtualRuns.increment();
+                Thread.startVirtualThread(task);
+            }
+            case PROBE -> {
+                stats.probeRuns.increment();
+                probes.execute(() -> stats.probe(task));
+            }
+        }
+    }
+
+    /** Current ratio and routing counters of every type seen so far. */
+    public List<TypeStats> stats() {
+        List<TypeStats> result = new ArrayList<>();
+        for (TaskType t : types.values()) {
+            result.add(new TypeStats(t.name, t.ratio, t.learnedRoute(),
+                    t.platformRuns.sum(), t.virtualRuns.sum(), t.probeRuns.sum()));
+        }
+        return result;
+    }
+
+    @Override
+    public void close() {
+        platform.shutdownNow();
+        probes.shutdownNow();
+    }
+
+    private final class TaskType {
+        final String name;
+        final AtomicLong submitted = new AtomicLong();
+        final LongAdder platformRuns = new LongAdder();
+        final LongAdder virtualRuns = new LongAdder();
+        final LongAdder probeRuns = new LongAdder();
+        /** Moving average of CPU/wall over the probes, NaN until the first probe finished. */
+        volatile double ratio = Double.NaN;
+
+        TaskType(String name) {
+            this.name = name;
+        }
+
+        Route nextRoute() {
+            long n = submitted.getAndIncrement();
+            boolean wantProbe = Double.isNaN(ratio) || n < PROBE_SAMPLES || n % REPROBE_EVERY == 0;
+            if (wantProbe && probeSlots.tryAcquire()) {
+                return Route.PROBE;
+            }
+            return learnedRoute();
+        }
+
+        Route learnedRoute() {
+            return ratio >= cpuRatioThreshold ? Route.PLATFORM : Route.VIRTUAL; // NaN compares false
+        }
+
+        void probe(Runnable task) {
+            long cpuStart = THREADS.getCurrentThreadCpuTime();
+            long wallStart = System.nanoTime();
+            try {
+                task.run();
+            } finally {
+                long wall = System.nanoTime() - wallStart;
+                long cpu = THREADS.getCurrentThreadCpuTime() - cpuStart;
+                probeSlots.release();
+                if (cpuStart >= 0 && wall > 0) {
+                    record(Math.min(1.0, (double) cpu / wall));
+                }
+            }
+        }
+
+        private synchronized void record(double sample) {
+            ratio = Double.isNaN(ratio) ? sample : ratio + SMOOTHING * (sample - ratio);
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package loombench.harness;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free, allocation-free latency recorder with nanosecond resolution.
+ *
+ * <p>Values go into a log-linear (HDR-style) histogram with 1024 linear
+ * sub-buckets per power of two, so every recorded value is kept to within
+ * 0.1%. Recording threads are spread over several histogram stripes by thread
+ * id; a record is one {@code getAndIncrement} on a stripe, which never takes a
+ * monitor and therefore never pins a virtual thread's carrier. Stripes are
+ * merged only when {@link #snapshot()} is called at the end of a run.
+ */
+public final class LatencyRecorder {
+
+    private static final int SUB_BUCKET_BITS = 10;
+    private static final int SUB_BUCKET_HALF = 1 << SUB_BUCKET_BITS;       // 1024
+    private static final int SUB_BUCKET_COUNT = SUB_BUCKET_HALF << 1;      // 2048
+
+    /** Values above one hour are clamped into the last bucket. */
+    public static final long MAX_TRACKABLE_NANOS = 3_600_000_000_000L;
+
+    private static final int BUCKET_COUNT = indexFor(MAX_TRACKABLE_NANOS) + 1;
+
+    // Per-stripe meta slots
+    private static final int COUNT = 0, SUM = 1, MAX = 2, MIN = 3, META_SIZE = 4;
+
+    private final AtomicLongArray[] counts;
+    private final AtomicLongArray[] meta;
+    private final int stripeMask;
+
+    public LatencyRecorder() {
+        this(Math.min(16, Runtime.getRuntime().availableProcessors() * 2));
+    }
+
+    public LatencyRecorder(int stripes) {
+        int size = stripes <= 1 ? 1 : Integer.highestOneBit(stripes - 1) << 1;
+        counts = new AtomicLongArray[size];
+        meta = new AtomicLongArray[size];
+        for (int i = 0; i < size; i++) {
+            counts[i] = new AtomicLongArray(BUCKET_COUNT);
+            meta[i] = new AtomicLongArray(META_SIZE);
+            meta[i].set(MIN, Long.MAX_VALUE);
+        }
+        stripeMask = size - 1;
+    }
+
+    /** Records one latency sample, in nanoseconds. Negative values are recorded as 0. */
+    public void recordNanos(long nanos) {
+        long value = Math.min(Math.max(nanos, 0), MAX_TRACKABLE_NANOS);
+        int stripe = stripeFor(Thread.currentThread());
+
+        counts[stripe].getAndIncrement(indexFor(value));
+
+        AtomicLongArray m = meta[stripe];
+        m.getAndIncrement(COUNT);
+        m.getAndAdd(SUM, value);
+        long max;
+        while (value > (max = m.get(MAX)) && !m.compareAndSet(MAX, max, value)) {
+            // retry
+        }
+        long min;
+        while (value < (min = m.get(MIN)) && !m.compareAndSet(MIN, min, value)) {
+            // retry
+        }
+    }
+
+    /** Records the time elapsed since {@code startNanos} (a {@link System#nanoTime()} stamp). */
+    public void recordSince(long startNanos) {
+        recordNanos(System.nanoTime() - startNanos);
+    }
+
+    /** Merges all stripes into an immutable snapshot. */
+    public Snapshot snapshot() {
+        long[] merged = new long[BUCKET_COUNT];
+        long count = 0, sum = 0, max = 0, min = Long.MAX_VALUE;
+        for (int s = 0; s <= stripeMask; s++) {
+            AtomicLongArray c = counts[s];
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                merged[i] += c.get(i);
+            }
+            count += meta[s].get(COUNT);
+            sum += meta[s].get(SUM);
+            max = Math.max(max, meta[s].get(MAX));
+            min = Math.min(min, meta[s].get(MIN));
+        }
+        return new Snapshot(merged, count, sum, count == 0 ? 0 : min, max);
+    }
+
+    private int stripeFor(Thread thread) {
+        long id = thread.threadId();
+        return (int) (id ^ (id >>> 16)) & stripeMask;
+    }
+
+    static int indexFor(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return (shift << SUB_BUCKET_BITS) + (int) (value >>> shift);
+    }
+
+    /** Highest value that maps to the same bucket as {@code index}. */
+    static long highestValueAt(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int shift = (index >>> SUB_BUCKET_BITS) - 1;
+        long sub = index - ((long) shift << SUB_BUCKET_BITS);
+        return (sub << shift) + (1L << shift) - 1;
+    }
+
+    /** Merged view of a recorder. All values are in nanoseconds. */
+    public static final class Snapshot {
+        private final long[] buckets;
+        private final long count, sum, min, max;
+
+        Snapshot(long[] buckets, long count, long sum, long min, long max) {
+            this.buckets = buckets;
+            this.count = count;
+            this.sum = sum;
+            this.min = min;
+            this.max = max;
+        }
+
+        public long count() {
+            return count;
+        }
+
+        public double mean() {
+            return count == 0 ? 0 : (double) sum / count;
+        }
+
+        public long min() {
+            return min;
+        }
+
+        public long max() {
+            return max;
+        }
+
+        /** Value at the given percentile (0-100], clamped to the exact max. */
+        public long percentile(double percentile) {
+            if (count == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * count));
+            long seen = 0;
+            for (int i = 0; i < buckets.length; i++) {
+                seen += buckets[i];
+                if (seen >= rank) {
+                    return Math.min(highestValueAt(i), max);
+                }
+            }
+            return max;
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package loombench.harness;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntConsumer;
+
+/**
+ * Two-stage I/O → CPU pipeline for tasks that block first and compute after.
+ *
+ * <pre>
+ *   submit ─▶ [admission: max in-flight I/O] ─▶ virtual thread per task (I/O stage)
+ *          ─▶ bounded handoff queue ─▶ cores-sized platform workers (CPU stage)
+ * </pre>
+ *
+ * CPU work starts as soon as the first I/O completes instead of after a
+ * barrier on the whole batch. Backpressure reaches the submitter: a task
+ * keeps its admission permit until the handoff queue has taken it, so an I/O
+ * thread blocked on the full queue still counts against {@code maxInFlightIo}
+ * and the submitter blocks once that many tasks are in or waiting behind the
+ * I/O stage.
+ * Latency is recorded per task from admission to the end of its CPU stage, so
+ * it includes the time spent waiting in the handoff queue; the handoff wait
+ * (end of I/O to start of CPU) is recorded separately.
+ *
+ * <p>A task whose I/O or CPU stage throws counts as completed once, so the run
+ * still ends, and as failed in {@link Stats#failedTasks()}; it records no
+ * latency. A CPU worker survives a throwing stage, so the CPU stage keeps its
+ * size for later runs.
+ */
+public final class PipelineExecutor implements AutoCloseable {
+
+    /** What one {@link #runAll} measured. */
+    public record Stats(LatencyRecorder.Snapshot endToEnd, LatencyRecorder.Snapshot handoffWait,
+                        long admissionBlockedNanos, long handoffBlockedNanos, int peakQueueDepth,
+                        int failedTasks) {
+    }
+
+    private record Handoff(int taskId, long admittedNanos, long ioDoneNanos) {
+    }
+
+    private static final Handoff POISON = new Handoff(-1, 0, 0);
+
+    private final IntConsumer ioStage;
+    private final IntConsumer cpuStage;
+    private final int maxInFlightIo;
+    private final BlockingQueue<Handoff> handoff;
+    private final Thread[] workers;
+
+    // Per-run state, replaced by runAll
+    private volatile CompletionCounter done;
+    private volatile LatencyRecorder endToEnd;
+    private volatile LatencyRecorder handoffWait;
+    private final LongAdder handoffBlocked = new LongAdder();
+    private final AtomicInteger peakQueueDepth = new AtomicInteger();
+    private final AtomicInteger failedTasks = new AtomicInteger();
+
+    /**
+     * @param cpuThreads    CPU stage workers, 0 or less for availableProcessors
+     * @param queueCapacity handoff slots between the stages
+     * @param maxInFlightIo tasks allowed in the I/O stage at once
+     */
+    public PipelineExecutor(IntConsumer ioStage, IntConsumer cpuStage,
+                            int cpuThreads, int queueCapacity, int maxInFlightIo) {
+        this.ioStage = ioStage;
+        this.cpuStage = cpuStage;
+        this.maxInFlightIo = maxInFlightIo;
+        this.handoff = new ArrayBlockingQueue<>(queueCapacity);
+        this.workers = new Thread[ThreadModel.sizeOrCores(cpuThreads)];
+        for (int i = 0; i < workers.length; i++) {
+            workers[i] = Thread.ofPlatform().daemon().name("pipeline-cpu-" + i).start(this::cpuLoop);
+        }
+    }
+
+    /** Pushes task ids {@code 0..tasks-1} through both stages and waits for the last one. */
+    public Stats runAll(int tasks) throws InterruptedException {
+        done = new CompletionCounter(tasks);
+        endToEnd = new LatencyRecorder();
+        handoffWait = new LatencyRecorder();
+        handoffBlocked.reset();
+        peakQueueDepth.set(0);
+        failedTasks.set(0);
+
+        Semaphore admission = new Semaphore(maxInFlightIo);
+        long admissionBlocked = 0;
+        for (int i = 0; i < tasks; i++) {
+            final int taskId = i;
+            long waitStart = System.nanoTime();
+            admission.acquire();
+            long admitted = System.nanoTime();
+            admissionBlocked += admitted - waitStart;
+
+            Thread.startVirtualThread(() -> {
+                try {
+                    ioStage.accept(taskId);
+                } catch (RuntimeException | Error e) {
+                    admission.release();
+                    fail();
+                    return;
+                }
+                enqueue(new Handoff(taskId, admitted, System.nanoTime()), admission);
+            });
+        }
+        done.await();
+        return new Stats(endToEnd.snapshot(), handoffWait.snapshot(),
+                admissionBlocked, handoffBlocked.sum(), peakQueueDepth.get(), failedTasks.get());
+    }
+
+    private void fail() {
+        failedTasks.incrementAndGet();
+        done.complete();
+    }
+
+    /** Hands the task to the CPU stage, keeping its admission permit until the queue takes it. */
+    private void enqueue(Handoff item, Semaphore admission) {
+        try {
+            handoff.put(item);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            fail(); // the task is lost, do not hang the run
+            return;
+        } finally {
+            admission.release();
+        }
+        handoffBlocked.add(System.nanoTime() - item.ioDoneNanos());
+        peakQueueDepth.accumulateAndGet(handoff.size(), Math::max);
+    }
+
+    private void cpuLoop() {
+        try {
+            while (true) {
+                Handoff item = handoff.take();
+                if (item == POISON) {
+                    return;
+                }
+                handoffWait.recordSince(item.ioDoneNanos());
+                try {
+                    cpuStage.accept(item.taskId());
+                } catch (RuntimeException | Error e) {
+                    fail();
+                    continue;
+                }
+                endToEnd.recordSince(item.admittedNanos());
+                done.complete();
+            }
+        } catch (InterruptedException e) {
+            // closed
+        }
+    }
+
+    @Override
+    public void close() {
+        for (int i = 0; i < workers.length; i++) {
+            if (!handoff.offer(POISON)) {
+                workers[i].interrupt();
+            }
+        }
+    }
+}
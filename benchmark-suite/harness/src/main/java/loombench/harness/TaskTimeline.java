@@ -0,0 +1,116 @@
+package loombench.harness;
+
+import java.util.Arrays;
+
+import loombench.harness.results.ResultsFile;
+
+/**
+ * Enqueue, start and end stamps of every task in one run, kept in three plain
+ * {@code long[]} indexed by task id so stamping allocates nothing and takes
+ * no lock.
+ *
+ * <p>Each slot is written by one thread only: the submitter writes the
+ * enqueue stamp before handing the task over, the task writes its start and
+ * end stamps before signalling completion. The executor hand-off and the
+ * completion signal (latch, join) order those writes before
+ * {@link #summarize(long)} reads them, so no atomics are needed.
+ *
+ * <p>Models without a per-task submission (ForkJoin, parallel streams) call
+ * {@link #enqueueAll()} once when the batch is handed over. Their queue wait
+ * is then the time until a worker reached the task.
+ */
+public final class TaskTimeline {
+
+    private final long[] enqueued;
+    private final long[] started;
+    private final long[] ended;
+
+    public TaskTimeline(int tasks) {
+        enqueued = new long[tasks];
+        started = new long[tasks];
+        ended = new long[tasks];
+    }
+
+    public int size() {
+        return enqueued.length;
+    }
+
+    /** Stamps {@code taskId} as handed to the executor. */
+    public void enqueued(int taskId) {
+        enqueued[taskId] = System.nanoTime();
+    }
+
+    /** Stamps every task as enqueued now. */
+    public void enqueueAll() {
+        Arrays.fill(enqueued, System.nanoTime());
+    }
+
+    /** Stamps {@code taskId} as picked up by a thread; call first thing in the task body. */
+    public void started(int taskId) {
+        started[taskId] = System.nanoTime();
+    }
+
+    /** Stamps {@code taskId} as done; call before signalling completion. */
+    public void ended(int taskId) {
+        ended[taskId] = System.nanoTime();
+    }
+
+    /**
+     * Splits every completed task into queue wait (enqueue to start) and
+     * service time (start to end). {@code observedNanos} is when the caller
+     * saw the run complete; the gap to the last end stamp is the completion
+     * signalling delay.
+     */
+    public Summary summarize(long observedNanos) {
+        LatencyRecorder queue = new LatencyRecorder(1);
+        LatencyRecorder service = new LatencyRecorder(1);
+        LatencyRecorder total = new LatencyRecorder(1);
+        long lastEnd = Long.MIN_VALUE;
+        int completed = 0;
+        for (int i = 0; i < enqueued.length; i++) {
+            if (ended[i] == 0) {
+                continue;
+            }
+            queue.recordNanos(started[i] - enqueued[i]);
+            service.recordNanos(ended[i] - started[i]);
+            total.recordNanos(ended[i] - enqueued[i]);
+            lastEnd = Math.max(lastEnd, ended[i]);
+            completed++;
+        }
+        long signal = completed == 0 ? 0 : Math.max(0, observedNanos - lastEnd);
+        return new Summary(queue.snapshot(), service.snapshot(), total.snapshot(), completed, signal);
+    }
+
+    /** Queue wait, service time and enqueue-to-end time of the completed tasks, in nanoseconds. */
+    public record Summary(LatencyRecorder.Snapshot queue, LatencyRecorder.Snapshot service,
+                          LatencyRecorder.Snapshot total, int completed, long signalNanos) {
+
+        /** Share of the mean enqueue-to-end time spent waiting for a thread. */
+        public double queueShare() {
+            return total.mean() == 0 ? 0 : queue.mean() / total.mean();
+        }
+
+        public void addTo(ResultsFile.Row row) {
+            row.put("Queue Mean", queue.mean() / 1_000_000.0)
+                    .put("Queue p50", queue.percentile(50) / 1_000_000.0)
+                    .put("Queue p99", queue.percentile(99) / 1_000_000.0)
+                    .put("Service Mean", service.mean() / 1_000_000.0)
+                    .put("Service p50", service.percentile(50) / 1_000_000.0)
+                    .put("Service p99", service.percentile(99) / 1_000_000.0)
+                    .put("Total p99", total.percentile(99) / 1_000_000.0)
+                    .put("Signal", signalNanos / 1_000_000.0);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Queue wait (ms) mean %.3f | p50 %.3f | p99 %.3f | max %.3f"
+                            + " · Service (ms) mean %.3f | p50 %.3f | p99 %.3f"
+                            + " · Total p99 %.3f ms · %.0f%% of mean in queue · Signal %.3f ms",
+                    queue.mean() / 1_000_000.0, queue.percentile(50) / 1_000_000.0,
+                    queue.percentile(99) / 1_000_000.0, queue.max() / 1_000_000.0,
+                    service.mean() / 1_000_000.0, service.percentile(50) / 1_000_000.0,
+                    service.percentile(99) / 1_000_000.0, total.percentile(99) / 1_000_000.0,
+                    queueShare() * 100, signalNanos / 1_000_000.0);
+        }
+    }
+}
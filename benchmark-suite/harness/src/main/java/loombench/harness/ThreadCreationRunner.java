@@ -0,0 +1,240 @@
+package loombench.harness;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import loombench.harness.results.ResultsFile;
+import loombench.harness.sampling.NativeMemorySampler;
+
+/**
+ * Measures what it costs to create, start and join threads, without a pool
+ * in between. ThreadComparisonCPU's "Thread Creation Time" hands no-op tasks
+ * to a reused pool, so it mostly measures the latch.
+ *
+ * <pre>
+ * java -Xmx4g -cp harness/target/classes loombench.harness.ThreadCreationRunner \
+ *      --spawner virtual,platform --threads 1000,100000,1000000 --stack 0,262144
+ * </pre>
+ *
+ * Spawners:
+ * <ul>
+ *   <li>{@code new-thread}: {@code new Thread(r)};</li>
+ *   <li>{@code platform}: {@code Thread.ofPlatform().stackSize(s).unstarted(r)},
+ *       once per {@code --stack} size (0 = the JVM default);</li>
+ *   <li>{@code virtual}: {@code Thread.ofVirtual().unstarted(r)};</li>
+ *   <li>{@code virtual-executor}: {@code Executors.newVirtualThreadPerTaskExecutor()};</li>
+ *   <li>{@code factory-executor}: {@code Executors.newThreadPerTaskExecutor} over
+ *       a platform {@code ThreadFactory}, once per {@code --stack} size.</li>
+ * </ul>
+ * Every thread blocks on a shared gate until all of them run, so memory is
+ * measured with all {@code --threads} alive at once. Per thread, the runner
+ * reports creation (unstarted threads only), start and join time, the delay
+ * from {@code start()} to the first instruction of the body, and heap and RSS
+ * growth. Platform spawners skip counts above {@code --platform-max} (default
+ * 10000): an OS thread per task at a million is the case this suite exists to
+ * rule out, not measure.
+ */
+public class ThreadCreationRunner {
+
+    static final List<String> SPAWNERS = List.of("new-thread", "platform", "virtual", "virtual-executor", "factory-executor");
+
+    /** One spawner at one thread count; times in ns per thread, memory in bytes per thread. */
+    record Cell(String spawner, long stackSize, int threads, double createNs, double startNs, double joinNs,
+                LatencyRecorder.Snapshot startToRun, double heapBytes, double rssBytes) {
+
+        void addTo(ResultsFile.Row row) {
+            row.put("Spawner", spawner)
+                    .put("Stack", stackSize)
+                    .put("Threads", threads)
+                    .put("Create ns", createNs)
+                    .put("Start ns", startNs)
+                    .put("Join ns", joinNs)
+                    .put("Start-to-run p50 us", startToRun.percentile(50) / 1_000.0)
+                    .put("Start-to-run p99 us", startToRun.percentile(99) / 1_000.0)
+                    .put("Heap B/thread", heapBytes)
+                    .put("RSS B/thread", rssBytes);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Spawner: %-16s | Stack: %-8s | Threads: %-8d | Create: %s | Start: %.0f ns | Join: %.0f ns"
+                            + " | Start→run p50: %.1f µs | p99: %.1f µs | Heap: %.0f B/thread | RSS: %.0f B/thread",
+                    spawner, stackSize == 0 ? "default" : Long.toString(stackSize), threads,
+                    createNs < 0 ? "n/a" : String.format("%.0f ns", createNs), startNs, joinNs,
+                    startToRun.percentile(50) / 1_000.0, startToRun.percentile(99) / 1_000.0, heapBytes, rssBytes);
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        List<String> spawners = SPAWNERS;
+        List<Integer> threadCounts = List.of(1000, 10_000, 100_000, 1_000_000);
+        List<Integer> stackSizes = List.of(0);
+        int platformMax = 10_000;
+        int warmups = 1;
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--spawner" -> spawners = parseSpawners(args[++i]);
+                case "--threads" -> threadCounts = WorkloadRunner.parseInts(args[++i]);
+                case "--stack" -> stackSizes = WorkloadRunner.parseInts(args[++i]);
+                case "--platform-max" -> platformMax = Integer.parseInt(args[++i].replace("_", ""));
+                case "--warmup" -> warmups = Integer.parseInt(args[++i]);
+                default -> throw new IllegalArgumentException("Unknown option " + args[i]
+                        + " (expected --spawner, --threads, --stack, --platform-max, --warmup)");
+            }
+        }
+
+        ResultsFile results = ResultsFile.forBenchmark("ThreadCreation")
+                .meta("maxHeapMB", Runtime.getRuntime().maxMemory() / (1024 * 1024));
+        for (int threads : threadCounts) {
+            System.out.println("===== Threads: " + threads + " =====");
+            for (String spawner : spawners) {
+                boolean platform = !spawner.startsWith("virtual");
+                if (platform && threads > platformMax) {
+                    System.out.println("Spawner: " + spawner + " skipped above --platform-max " + platformMax);
+                    continue;
+                }
+                for (long stackSize : stackSizesFor(spawner, stackSizes)) {
+                    for (int w = 0; w < warmups; w++) {
+                        measure(spawner, stackSize, Math.min(threads, 10_000));
+                    }
+                    Cell cell = measure(spawner, stackSize, threads);
+                    System.out.println(cell);
+                    cell.addTo(results.row());
+                }
+            }
+            System.out.println();
+        }
+        results.write();
+        System.out.println("Results → " + results.csvPath() + ", " + results.jsonPath());
+    }
+
+    static Cell measure(String spawner, long stackSize, int threads) throws InterruptedException {
+        CompletionCounter running = new CompletionCounter(threads);
+        CountDownLatch gate = new CountDownLatch(1);
+        LatencyRecorder startToRun = new LatencyRecorder();
+        long[] startedAt = new long[threads];
+
+        long heapBefore = usedHeapAfterGc();
+        long rssBefore = NativeMemorySampler.procStatus()[0];
+
+        double createNs = -1;
+        long joinNanos;
+        long startNanos;
+        if (spawner.endsWith("executor")) {
+            ExecutorService executor = spawner.equals("virtual-executor")
+                    ? Executors.newVirtualThreadPerTaskExecutor()
+                    : Executors.newThreadPerTaskExecutor(Thread.ofPlatform().stackSize(stackSize).factory());
+            long start = System.nanoTime();
+            for (int i = 0; i < threads; i++) {
+                Runnable body = body(i, startedAt, startToRun, running, gate);
+                startedAt[i] = System.nanoTime();
+                executor.execute(body);
+            }
+            startNanos = System.nanoTime() - start;
+            running.await();
+            Memory memory = memoryGrowth(heapBefore, rssBefore, threads);
+
+            long release = System.nanoTime();
+            gate.countDown();
+            executor.close();
+            joinNanos = System.nanoTime() - release;
+            return new Cell(spawner, stackSize, threads, createNs, (double) startNanos / threads,
+                    (double) joinNanos / threads, startToRun.snapshot(), memory.heapBytes, memory.rssBytes);
+        }
+
+        Thread.Builder builder = switch (spawner) {
+            case "platform" -> Thread.ofPlatform().stackSize(stackSize);
+            case "virtual" -> Thread.ofVirtual();
+            default -> null; // new-thread
+        };
+        Thread[] created = new Thread[threads];
+        long start = System.nanoTime();
+        for (int i = 0; i < threads; i++) {
+            Runnable body = body(i, startedAt, startToRun, running, gate);
+            created[i] = builder == null ? new Thread(body) : builder.unstarted(body);
+        }
+        createNs = (double) (System.nanoTime() - start) / threads;
+
+        start = System.nanoTime();
+        for (int i = 0; i < threads; i++) {
+            startedAt[i] = System.nanoTime();
+            created[i].start();
+        }
+        startNanos = System.nanoTime() - start;
+        running.await();
+        Memory memory = memoryGrowth(heapBefore, rssBefore, threads);
+
+        long release = System.nanoTime();
+        gate.countDown();
+        for (Thread thread : created) {
+            thread.join();
+        }
+        joinNanos = System.nanoTime() - release;
+        return new Cell(spawner, stackSize, threads, createNs, (double) startNanos / threads,
+                (double) joinNanos / threads, startToRun.snapshot(), memory.heapBytes, memory.rssBytes);
+    }
+
+    // Records how long after start() the body began, then holds the thread alive until the gate opens
+    private static Runnable body(int index, long[] startedAt, LatencyRecorder startToRun,
+                                 CompletionCounter running, CountDownLatch gate) {
+        return () -> {
+            startToRun.recordSince(startedAt[index]);
+            running.complete();
+            try {
+                gate.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+    }
+
+    private record Memory(double heapBytes, double rssBytes) {
+    }
+
+    private static Memory memoryGrowth(long heapBefore, long rssBefore, int threads) {
+        long heapAfter = usedHeapAfterGc();
+        long rssAfter = NativeMemorySampler.procStatus()[0];
+        double rss = rssBefore < 0 || rssAfter < 0 ? -1 : (rssAfter - rssBefore) * 1024.0 / threads;
+        return new Memory((double) (heapAfter - heapBefore) / threads, rss);
+    }
+
+    // Parked virtual threads keep their stacks on the heap, so heap growth is their memory cost.
+    // Lowest of a few full GCs: a single reading can include garbage allocated while taking it.
+    private static long usedHeapAfterGc() {
+        long used = Long.MAX_VALUE;
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            used = Math.min(used, ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed());
+        }
+        return used;
+    }
+
+    static List<Long> stackSizesFor(String spawner, List<Integer> stackSizes) {
+        List<Long> result = new ArrayList<>();
+        if (spawner.equals("platform") || spawner.equals("factory-executor")) {
+            for (int size : stackSizes) {
+                result.add((long) size);
+            }
+        } else {
+            result.add(0L);
+        }
+        return result;
+    }
+
+    static List<String> parseSpawners(String value) {
+        List<String> result = new ArrayList<>();
+        for (String item : value.split(",")) {
+            String spawner = item.trim();
+            if (!SPAWNERS.contains(spawner)) {
+                throw new IllegalArgumentException("Unknown spawner '" + spawner + "' (expected one of " + SPAWNERS + ")");
+            }
+            result.add(spawner);
+        }
+        return result;
+    }
+}
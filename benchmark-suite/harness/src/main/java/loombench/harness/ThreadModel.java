@@ -0,0 +1,284 @@
+package loombench.harness;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * The thread models compared across the suite. Each model hands out a
+ * {@link ModelExecutor} whose pools are created once up front, so a run measures
+ * task execution and not pool start-up.
+ */
+public enum ThreadModel {
+
+    PLATFORM {
+        @Override
+        public ModelExecutor open(int poolSize) {
+            ExecutorService pool = Executors.newFixedThreadPool(sizeOrCores(poolSize));
+            return new ModelExecutor() {
+                @Override
+                public void runAll(int tasks, IntConsumer task) throws InterruptedException {
+                    CompletionCounter done = new CompletionCounter(tasks);
+                    for (int i = 0; i < tasks; i++) {
+                        final int taskId = i;
+                        pool.execute(() -> {
+                            task.accept(taskId);
+                            done.complete();
+                        });
+                    }
+                    done.await();
+                }
+
+                @Override
+                public void close() {
+                    pool.shutdownNow();
+                }
+            };
+        }
+    },
+
+    /** Virtual thread per task, on the carrier scheduler picked by {@link CarrierScheduler}. */
+    VIRTUAL {
+        @Override
+        public ModelExecutor open(int poolSize) {
+            return new ModelExecutor() {
+                @Override
+                public void runAll(int tasks, IntConsumer task) throws InterruptedException {
+                    CompletionCounter done = new CompletionCounter(tasks);
+                    for (int i = 0; i < tasks; i++) {
+                        final int taskId = i;
+                        CarrierScheduler.startVirtualThread(() -> {
+                            task.accept(taskId);
+                            done.complete();
+                        });
+                    }
+                    done.await();
+                }
+
+                @Override
+                public void close() {
+                }
+            };
+        }
+    },
+
+    /**
+     * {@link BoundedVirtualExecutor}: virtual thread per task with at most
+     * {@code poolSize} running; the submitting loop blocks for a permit.
+     */
+    BOUNDED_VIRTUAL {
+        @Override
+        public ModelExecutor open(int poolSize) {
+            BoundedVirtualExecutor bounded = new BoundedVirtualExecutor(sizeOrCores(poolSize));
+            return new ModelExecutor() {
+                @Override
+                public void runAll(int tasks, IntConsumer task) throws InterruptedException {
+                    CompletionCounter done = new CompletionCounter(tasks);
+                    for (int i = 0; i < tasks; i++) {
+                        final int taskId = i;
+                        bounded.execute(() -> {
+                            task.accept(taskId);
+                            done.complete();
+                        });
+                    }
+                    done.await();
+                }
+
+                @Override
+                public void close() {
+                    bounded.close();
+                }
+            };
+        }
+    },
+
+    /** Recursive range splitting; {@code -Dfj.split=adaptive} (default) or a fixed leaf size. */
+    FORK_JOIN {
+        @Override
+        public ModelExecutor open(int poolSize) {
+            ForkJoinPool pool = new ForkJoinPool(sizeOrCores(poolSize));
+            String split = System.getProperty("fj.split", "adaptive").trim();
+            int threshold = split.equals("adaptive") ? 0 : Integer.parseInt(split);
+            return new ModelExecutor() {
+                @Override
+                public void runAll(int tasks, IntConsumer task) {
+                    int minLeaf = Math.max(1, tasks / (pool.getParallelism() * RangeAction.LEAVES_PER_WORKER));
+                    pool.invoke(new RangeAction(0, tasks, task, threshold, minLeaf));
+                }
+
+                @Override
+                public void close() {
+                    pool.shutdownNow();
+                }
+            };
+        }
+    },
+
+    /** {@code IntStream.range(0, tasks).parallel().forEach(task)} run inside a pool of {@code poolSize}. */
+    PARALLEL_STREAM {
+        @Override
+        public ModelExecutor open(int poolSize) {
+            ForkJoinPool pool = new ForkJoinPool(sizeOrCores(poolSize));
+            return new ModelExecutor() {
+                @Override
+                public void runAll(int tasks, IntConsumer task) {
+                    pool.submit(() -> IntStream.range(0, tasks).parallel().forEach(task)).join();
+                }
+
+                @Override
+                public void close() {
+                    pool.shutdownNow();
+                }
+            };
+        }
+    },
+
+    HYBRID {
+        @Override
+        public ModelExecutor open(int poolSize) {
+            ExecutorService pool = Executors.newFixedThreadPool(sizeOrCores(poolSize));
+            return new ModelExecutor() {
+                @Override
+                public void runAll(int tasks, IntConsumer task) throws InterruptedException {
+                    int half = tasks / 2;
+                    CompletionCounter done = new CompletionCounter(tasks);
+                    for (int i = 0; i < half; i++) {
+                        final int taskId = i;
+                        pool.execute(() -> {
+                            task.accept(taskId);
+                            done.complete();
+                        });
+                    }
+                    for (int i = half; i < tasks; i++) {
+                        final int taskId = i;
+                        Thread.startVirtualThread(() -> {
+                            task.accept(taskId);
+                            done.complete();
+                        });
+                    }
+                    done.await();
+                }
+
+                @Override
+                public void close() {
+                    pool.shutdownNow();
+                }
+            };
+        }
+    },
+
+    /** {@link HybridExecutor}: the run's task type is routed by its measured CPU/wall ratio. */
+    ADAPTIVE {
+        @Override
+        public ModelExecutor open(int poolSize) {
+            HybridExecutor hybrid = new HybridExecutor();
+            return new ModelExecutor() {
+                @Override
+                public void runAll(int tasks, IntConsumer task) throws InterruptedException {
+                    CompletionCounter done = new CompletionCounter(tasks);
+                    for (int i = 0; i < tasks; i++) {
+                        final int taskId = i;
+                        hybrid.execute("task", () -> {
+                            task.accept(taskId);
+                            done.complete();
+                        });
+                    }
+                    done.await();
+                }
+
+                @Override
+                public void close() {
+                    hybrid.close();
+                }
+            };
+        }
+    };
+
+    /**
+     * Creates the executor for this model. {@code poolSize} sizes the platform
+     * pool (Platform, Hybrid), the ForkJoin / parallel-stream parallelism or the
+     * Bounded Virtual permits; Virtual ignores it and Adaptive always uses a
+     * cores-sized pool.
+     * A size of 0 or less means {@code availableProcessors}.
+     */
+    public abstract ModelExecutor open(int poolSize);
+
+    static int sizeOrCores(int poolSize) {
+        return poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors();
+    }
+
+    /** Runs {@code tasks} task ids through a model and waits for all of them. */
+    public interface ModelExecutor extends AutoCloseable {
+        void runAll(int tasks, IntConsumer task) throws InterruptedException;
+
+        @Override
+        void close();
+    }
+
+    /**
+     * Same splitting as ThreadComparisonCPU.RecursiveCpuTask: halves down to a
+     * fixed {@code threshold}, or with threshold 0 forks right halves only while
+     * {@link #getSurplusQueuedTaskCount()} shows idle workers could use more
+     * work, down to {@code minLeaf}.
+     */
+    @SuppressWarnings("serial") // never serialized
+    static final class RangeAction extends RecursiveAction {
+        static final int SURPLUS_LIMIT = 3;
+        static final int LEAVES_PER_WORKER = 16;
+
+        final int start, end;
+        final IntConsumer task;
+        final int threshold;
+        final int minLeaf;
+        RangeAction next;
+
+        RangeAction(int start, int end, IntConsumer task, int threshold, int minLeaf) {
+            this.start = start;
+            this.end = end;
+            this.task = task;
+            this.threshold = threshold;
+            this.minLeaf = minLeaf;
+        }
+
+        @Override
+        protected void compute() {
+            if (threshold <= 0) {
+                computeAdaptive();
+            } else if (end - start <= threshold) {
+                for (int i = start; i < end; i++) {
+                    task.accept(i);
+                }
+            } else {
+                int mid = (start + end) >>> 1;
+                invokeAll(new RangeAction(start, mid, task, threshold, minLeaf),
+                        new RangeAction(mid, end, task, threshold, minLeaf));
+            }
+        }
+
+        private void computeAdaptive() {
+            int hi = end;
+            RangeAction forked = null;
+            while (hi - start > minLeaf && getSurplusQueuedTaskCount() <= SURPLUS_LIMIT) {
+                int mid = (start + hi) >>> 1;
+                RangeAction right = new RangeAction(mid, hi, task, 0, minLeaf);
+                right.next = forked;
+                forked = right;
+                right.fork();
+                hi = mid;
+            }
+            for (int i = start; i < hi; i++) {
+                task.accept(i);
+            }
+            for (; forked != null; forked = forked.next) {
+                if (forked.tryUnfork()) {
+                    forked.compute();
+                } else {
+                    forked.join();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package loombench.harness;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import loombench.harness.runner.CellResult;
+import loombench.harness.sampling.CarrierThreadSampler;
+import loombench.harness.sampling.GcMonitor;
+import loombench.harness.sampling.PinningMonitor;
+import loombench.harness.workload.Workload;
+import loombench.harness.workload.Workloads;
+
+/**
+ * Runs any registered workload under any thread model from the command line.
+ *
+ * <pre>
+ * java -cp harness/target/classes loombench.harness.WorkloadRunner \
+ *      --model VIRTUAL,PLATFORM --workload socket:bytes=512 --tasks 10000 --pool 200
+ * </pre>
+ *
+ * {@code --model} and {@code --tasks} accept comma-separated lists;
+ * {@code --list} prints the registered workloads. {@code --emit-result}
+ * also prints each result as a {@link CellResult} line, which is how
+ * {@link loombench.harness.runner.MatrixRunner} reads its forked cells.
+ * With {@code -Dpinning} every cell also reports virtual-thread pinning.
+ * Models that run on virtual threads also report how many carriers the
+ * scheduler added to compensate for blocking it could not unmount. Every
+ * measured run reports its GC pauses and allocation rate, which is what
+ * the matrix's collector × heap-size sweep compares.
+ */
+public class WorkloadRunner {
+
+    public static void main(String[] args) throws Exception {
+        List<ThreadModel> models = List.of(ThreadModel.values());
+        List<Integer> taskCounts = List.of(1000);
+        String workloadSpec = "sleep:millis=10";
+        int poolSize = 0;
+        int warmups = 1;
+        boolean emitResult = false;
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--model" -> models = parseModels(args[++i]);
+                case "--tasks" -> taskCounts = parseInts(args[++i]);
+                case "--workload" -> workloadSpec = args[++i];
+                case "--pool" -> poolSize = Integer.parseInt(args[++i]);
+                case "--warmup" -> warmups = Integer.parseInt(args[++i]);
+                case "--emit-result" -> emitResult = true;
+                case "--list" -> {
+                    System.out.println("Workloads: " + Workloads.names());
+                    return;
+                }
+                default -> throw new IllegalArgumentException("Unknown option " + args[i]
+                        + " (expected --model, --tasks, --workload, --pool, --warmup, --emit-result, --list)");
+            }
+        }
+
+        try (Workload workload = Workloads.create(workloadSpec);
+             PinningMonitor pinning = PinningMonitor.fromProperty()) {
+            System.out.println("===== Workload: " + workload.name() + " =====");
+            for (int tasks : taskCounts) {
+                for (ThreadModel model : models) {
+                    try (ThreadModel.ModelExecutor executor = model.open(poolSize)) {
+                        for (int w = 0; w < warmups; w++) {
+                            executor.runAll(tasks, workload::run);
+                        }
+                        pinning.drain(); // drop warm-up events
+                        CellResult result = runMeasured(model, tasks, poolSize, executor, workload);
+                        if (pinning.enabled()) {
+                            System.out.println("📌 Pinning → " + pinning.drain());
+                        }
+                        if (emitResult) {
+                            System.out.println(result.toLine());
+                        }
+                    }
+                }
+                System.out.println();
+            }
+        }
+    }
+
+    static CellResult runMeasured(ThreadModel model, int tasks, int poolSize, ThreadModel.ModelExecutor executor,
+                                  Workload workload) throws InterruptedException {
+        LatencyRecorder latencies = new LatencyRecorder();
+        long[] sink = new long[tasks];
+        CarrierThreadSampler carriers = CarrierThreadSampler.start(CARRIER_INTERVAL_MS);
+        GcMonitor gcMonitor = GcMonitor.start();
+
+        long start = System.nanoTime();
+        executor.runAll(tasks, taskId -> {
+            long taskStart = System.nanoTime();
+            sink[taskId] = workload.run(taskId);
+            latencies.recordSince(taskStart);
+        });
+        long end = System.nanoTime();
+        CarrierThreadSampler.Summary carrierSummary = carriers.stop();
+        GcMonitor.Summary gc = gcMonitor.stop();
+
+        consume(sink);
+
+        double totalTimeSec = (end - start) / 1_000_000_000.0;
+        LatencyRecorder.Snapshot latency = latencies.snapshot();
+        CellResult result = new CellResult(model.name(), workload.name(), tasks, poolSize,
+                totalTimeSec, tasks / totalTimeSec, latency.mean() / 1_000_000.0,
+                latency.percentile(50) / 1_000_000.0, latency.percentile(90) / 1_000_000.0,
+                latency.percentile(99) / 1_000_000.0, latency.percentile(99.9) / 1_000_000.0,
+                latency.max() / 1_000_000.0, gc.count(), gc.totalPauseMillis(), gc.maxPauseMillis(),
+                gc.allocationMBPerSec());
+        System.out.printf("Model: %-9s | Tasks: %-6d | Time: %.2fs | Throughput: %.2f req/sec | Avg Latency: %.3f ms"
+                        + " | p50: %.3f | p99: %.3f | p99.9: %.3f | Max: %.3f ms%n",
+                model, tasks, result.timeSec(), result.throughput(), result.meanMs(),
+                result.p50Ms(), result.p99Ms(), result.p999Ms(), result.maxMs());
+        if (model != ThreadModel.PLATFORM && model != ThreadModel.FORK_JOIN && model != ThreadModel.PARALLEL_STREAM) {
+            System.out.println("🧵 " + carrierSummary);
+        }
+        System.out.println("🗑 GC → " + gc);
+        return result;
+    }
+
+    static final long CARRIER_INTERVAL_MS = 20;
+
+    static volatile long sinkChecksum;
+
+    private static void consume(long[] sink) {
+        long checksum = 0;
+        for (long value : sink) {
+            checksum += value;
+        }
+        sinkChecksum = checksum;
+    }
+
+    static List<ThreadModel> parseModels(String value) {
+        List<ThreadModel> result = new ArrayList<>();
+        for (String item : value.split(",")) {
+            result.add(ThreadModel.valueOf(item.trim().toUpperCase().replace('-', '_')));
+        }
+        return result;
+    }
+
+    static List<Integer> parseInts(String value) {
+        List<Integer> result = new ArrayList<>();
+        for (String item : value.split(",")) {
+            result.add(Integer.parseInt(item.trim().replace("_", "")));
+        }
+        return result;
+    }
+}
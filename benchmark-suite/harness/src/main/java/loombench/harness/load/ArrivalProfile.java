@@ -0,0 +1,85 @@
+package loombench.harness.load;
+
+import java.util.SplittableRandom;
+
+import loombench.harness.workload.WorkloadSpec;
+
+/**
+ * Request arrival schedule of an open-loop run, written like a workload spec:
+ * <ul>
+ *   <li>{@code constant:rate=2000} - evenly spaced arrivals;</li>
+ *   <li>{@code poisson:rate=2000} - exponentially distributed gaps with the
+ *       same mean, i.e. independent clients;</li>
+ *   <li>{@code ramp:from=100:to=5000} - rate grows linearly over the run;</li>
+ *   <li>{@code spike:rate=500:peak=5000:at=50:width=10} - base rate with a
+ *       burst at {@code peak} starting {@code at}% into the run and lasting
+ *       {@code width}% of it.</li>
+ * </ul>
+ * Rates are requests per second.
+ */
+public interface ArrivalProfile {
+
+    /** Spec this profile was parsed from. */
+    String name();
+
+    /** Target rate in requests/second at {@code elapsedNanos} into a run of {@code durationNanos}. */
+    double rateAt(long elapsedNanos, long durationNanos);
+
+    /** Gap to the next arrival at the given rate; evenly spaced unless overridden. */
+    default long nextGapNanos(double rate, SplittableRandom random) {
+        return (long) (1_000_000_000.0 / Math.max(rate, 0.001));
+    }
+
+    static ArrivalProfile parse(String text) {
+        WorkloadSpec spec = WorkloadSpec.parse(text);
+        String name = spec.toString();
+        return switch (spec.name()) {
+            case "constant" -> constant(spec.longValue("rate", 1000));
+            case "poisson" -> new Poisson(name, spec.longValue("rate", 1000));
+            case "ramp" -> new Ramp(name, spec.longValue("from", 100), spec.longValue("to", 5000));
+            case "spike" -> new Spike(name, spec.longValue("rate", 500), spec.longValue("peak", 5000),
+                    spec.intValue("at", 50) / 100.0, spec.intValue("width", 10) / 100.0);
+            default -> throw new IllegalArgumentException("Unknown arrival profile '" + spec.name()
+                    + "' (expected constant, poisson, ramp or spike)");
+        };
+    }
+
+    static ArrivalProfile constant(double rate) {
+        return new Constant("constant:rate=" + (long) rate, rate);
+    }
+
+    record Constant(String name, double rate) implements ArrivalProfile {
+        @Override
+        public double rateAt(long elapsedNanos, long durationNanos) {
+            return rate;
+        }
+    }
+
+    record Poisson(String name, double rate) implements ArrivalProfile {
+        @Override
+        public double rateAt(long elapsedNanos, long durationNanos) {
+            return rate;
+        }
+
+        @Override
+        public long nextGapNanos(double rate, SplittableRandom random) {
+            return (long) (-Math.log(1.0 - random.nextDouble()) * 1_000_000_000.0 / Math.max(rate, 0.001));
+        }
+    }
+
+    record Ramp(String name, double from, double to) implements ArrivalProfile {
+        @Override
+        public double rateAt(long elapsedNanos, long durationNanos) {
+            double progress = Math.min(1.0, (double) elapsedNanos / durationNanos);
+            return from + (to - from) * progress;
+        }
+    }
+
+    record Spike(String name, double rate, double peak, double at, double width) implements ArrivalProfile {
+        @Override
+        public double rateAt(long elapsedNanos, long durationNanos) {
+            double progress = (double) elapsedNanos / durationNanos;
+            return progress >= at && progress < at + width ? peak : rate;
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package loombench.harness.load;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.IntConsumer;
+import java.util.function.IntFunction;
+
+import loombench.harness.LatencyRecorder;
+import loombench.harness.results.ResultsFile;
+
+/**
+ * Open-loop load generator: issues tasks on an {@link ArrivalProfile} schedule
+ * no matter how many are still running, instead of submitting N tasks in one
+ * burst and timing the drain.
+ *
+ * <p>Latency is measured from each task's <em>intended</em> start on the
+ * schedule, not from when it was handed to the executor or began running. A
+ * model that falls behind therefore shows the queueing delay it causes, and the
+ * coordinated omission of closed-loop measurement is avoided. Service time
+ * (actual start to end) is recorded separately.
+ *
+ * <p>{@link #findSaturation} raises a constant rate until the model can no longer
+ * keep up within a p99 objective, which is the capacity-planning number.
+ */
+public final class OpenLoopDriver {
+
+    /** Spin instead of parking when the next arrival is closer than this. */
+    private static final long SPIN_THRESHOLD_NANOS = 50_000;
+    /** Achieved/offered rate below which a step counts as saturated. */
+    static final double SUSTAINED_FRACTION = 0.95;
+
+    private OpenLoopDriver() {
+    }
+
+    /** Outcome of one open-loop run. */
+    public record Result(String profile, double durationSec, long issued, long completed, long rejected,
+                         double offeredRate, double achievedRate,
+                         LatencyRecorder.Snapshot latency, LatencyRecorder.Snapshot serviceTime) {
+
+        /** Kept up with the schedule and met the p99 objective. */
+        public boolean sustained(Duration p99Objective) {
+            return completed == issued && rejected == 0
+                    && achievedRate >= offeredRate * SUSTAINED_FRACTION
+                    && latency.percentile(99) <= p99Objective.toNanos();
+        }
+
+        public void addTo(ResultsFile.Row row) {
+            row.put("Profile", profile)
+                    .put("Offered (req/s)", offeredRate)
+                    .put("Achieved (req/s)", achievedRate)
+                    .put("Issued", issued)
+                    .put("Completed", completed)
+                    .put("Rejected", rejected)
+                    .put("p50", latency.percentile(50) / 1_000_000.0)
+                    .put("p90", latency.percentile(90) / 1_000_000.0)
+                    .put("p99", latency.percentile(99) / 1_000_000.0)
+                    .put("p99.9", latency.percentile(99.9) / 1_000_000.0)
+                    .put("Max", latency.max() / 1_000_000.0)
+                    .put("Service p50", serviceTime.percentile(50) / 1_000_000.0)
+                    .put("Service p99", serviceTime.percentile(99) / 1_000_000.0);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Offered: %.1f req/s | Achieved: %.1f req/s | Completed: %d/%d%s"
+                            + " | Latency (ms) p50: %.2f | p99: %.2f | p99.9: %.2f | Max: %.2f | Service p99: %.2f",
+                    offeredRate, achievedRate, completed, issued, rejected == 0 ? "" : " | Rejected: " + rejected,
+                    latency.percentile(50) / 1_000_000.0, latency.percentile(99) / 1_000_000.0,
+                    latency.percentile(99.9) / 1_000_000.0, latency.max() / 1_000_000.0,
+                    serviceTime.percentile(99) / 1_000_000.0);
+        }
+    }
+
+    /** Highest sustained constant rate and every step tried on the way. */
+    public record Saturation(double sustainedRate, List<Result> steps) {
+    }
+
+    /**
+     * Issues tasks on {@code profile} for {@code duration}, then waits up to
+     * {@code drainTimeout} for the ones still running. Tasks that have not
+     * finished by then count as issued but not completed.
+     */
+    public static Result run(ArrivalProfile profile, Duration duration, Duration drainTimeout,
+                             Executor executor, IntConsumer task) throws InterruptedException {
+        return runRouted(profile, duration, drainTimeout, taskId -> executor, task);
+    }
+
+    /** Like {@link #run(ArrivalProfile, Duration, Duration, Executor, IntConsumer)}, picking the executor per task id. */
+    public static Result runRouted(ArrivalProfile profile, Duration duration, Duration drainTimeout,
+                                   IntFunction<? extends Executor> executors, IntConsumer task) throws InterruptedException {
+        LatencyRecorder latency = new LatencyRecorder();
+        LatencyRecorder serviceTime = new LatencyRecorder();
+        LongAdder completed = new LongAdder();
+        AtomicLong lastStart = new AtomicLong();
+        SplittableRandom random = new SplittableRandom(42);
+
+        long durationNanos = duration.toNanos();
+        long start = System.nanoTime();
+        long intended = start;
+        long issued = 0;
+        long rejected = 0;
+        while (intended - start < durationNanos) {
+            waitUntil(intended);
+            final long intendedStart = intended;
+            final int taskId = (int) issued;
+            try {
+                executors.apply(taskId).execute(() -> {
+                    long serviceStart = System.nanoTime();
+                    lastStart.accumulateAndGet(serviceStart, Math::max);
+                    task.accept(taskId);
+                    long end = System.nanoTime();
+                    serviceTime.recordNanos(end - serviceStart);
+                    latency.recordNanos(end - intendedStart);
+                    completed.increment();
+                });
+            } catch (RejectedExecutionException e) {
+                rejected++;
+            }
+            issued++;
+            // The schedule never slips: if submitting was slow the next arrivals are simply due already
+            intended += profile.nextGapNanos(profile.rateAt(intended - start, durationNanos), random);
+        }
+        long issueEnd = System.nanoTime();
+
+        long deadline = issueEnd + drainTimeout.toNanos();
+        while (completed.sum() < issued - rejected && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+
+        double offered = issued / ((issueEnd - start) / 1_000_000_000.0);
+        // Rate at which the model got tasks started: a model that keeps up starts the last one on
+        // schedule, one that falls behind starts it late. Service time does not enter the window.
+        long window = Math.max(lastStart.get(), issueEnd) - start;
+        double achieved = completed.sum() / (window / 1_000_000_000.0);
+        return new Result(profile.name(), (issueEnd - start) / 1_000_000_000.0, issued, completed.sum(), rejected,
+                offered, achieved, latency.snapshot(), serviceTime.snapshot());
+    }
+
+    /**
+     * Doubles a constant rate from {@code startRate} until a step misses the
+     * schedule or the p99 objective, then bisects between the last sustained
+     * and the first failed rate {@code refinements} times.
+     */
+    public static Saturation findSaturation(double startRate, double maxRate, Duration stepDuration,
+                                            Duration p99Objective, int refinements,
+                                            IntFunction<? extends Executor> executors,
+                                            IntConsumer task) throws InterruptedException {
+        List<Result> steps = new ArrayList<>();
+        // Long enough that a failed step's backlog is gone before the next step starts
+        Duration drain = stepDuration.multipliedBy(10).plus(p99Objective);
+        double good = 0;
+        double bad = -1;
+        for (double rate = startRate; rate <= maxRate; rate *= 2) {
+            Result step = step(rate, stepDuration, drain, executors, task, steps);
+            if (!step.sustained(p99Objective)) {
+                bad = rate;
+                break;
+            }
+            good = rate;
+        }
+        for (int i = 0; bad > 0 && i < refinements; i++) {
+            double rate = good == 0 ? bad / 2 : (good + bad) / 2;
+            if (step(rate, stepDuration, drain, executors, task, steps).sustained(p99Objective)) {
+                good = rate;
+            } else {
+                bad = rate;
+            }
+        }
+        return new Saturation(good, List.copyOf(steps));
+    }
+
+    private static Result step(double rate, Duration duration, Duration drain,
+                               IntFunction<? extends Executor> executors, IntConsumer task,
+                               List<Result> steps) throws InterruptedException {
+        Result result = runRouted(ArrivalProfile.constant(rate), duration, drain, executors, task);
+        steps.add(result);
+        return result;
+    }
+
+    private static void waitUntil(long deadline) {
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > 0) {
+            if (remaining > SPIN_THRESHOLD_NANOS) {
+                LockSupport.parkNanos(remaining - SPIN_THRESHOLD_NANOS);
+            } else {
+                Thread.onSpinWait();
+            }
+        }
+    }
+}
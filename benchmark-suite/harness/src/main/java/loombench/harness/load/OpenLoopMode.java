@@ -0,0 +1,85 @@
+package loombench.harness.load;
+
+import java.time.Duration;
+import java.util.concurrent.Executor;
+import java.util.function.IntConsumer;
+import java.util.function.IntFunction;
+
+import loombench.harness.Config;
+import loombench.harness.results.ResultsFile;
+
+/**
+ * {@code -Dload=...} switch for the legacy benchmarks:
+ *
+ * <pre>
+ * -Dload=poisson:rate=2000      one open-loop run per model on that profile
+ * -Dload=saturation             saturation search per model
+ *
+ * -Dload.duration=30            seconds per profile run
+ * -Dload.slo.ms=1000            p99 objective of the saturation search
+ * -Dload.start=100              first rate of the search (req/s)
+ * -Dload.max=100000             highest rate the search tries (req/s)
+ * -Dload.step=10                seconds per search step
+ * -Dload.refine=3               bisection steps after the first failure
+ * </pre>
+ */
+public final class OpenLoopMode {
+
+    private final String spec;
+
+    private OpenLoopMode(String spec) {
+        this.spec = spec;
+    }
+
+    public static OpenLoopMode fromProperties() {
+        String value = System.getProperty("load");
+        return new OpenLoopMode(value == null || value.isBlank() ? null : value.trim());
+    }
+
+    public boolean enabled() {
+        return spec != null;
+    }
+
+    public String description() {
+        return spec.equals("saturation")
+                ? "saturation search, p99 ≤ " + Config.intValue("load.slo.ms", 1000) + " ms"
+                : spec + " for " + Config.intValue("load.duration", 30) + "s";
+    }
+
+    /** Runs the configured profile or saturation search for one model, prints it and adds result rows. */
+    public void run(String model, Executor executor, IntConsumer task, ResultsFile results) throws InterruptedException {
+        runRouted(model, taskId -> executor, task, results);
+    }
+
+    /** Same, with the executor chosen per task id (e.g. to split task types across pools). */
+    public void runRouted(String model, IntFunction<? extends Executor> executors, IntConsumer task, ResultsFile results)
+            throws InterruptedException {
+        if (spec.equals("saturation")) {
+            Duration objective = Duration.ofMillis(Config.intValue("load.slo.ms", 1000));
+            OpenLoopDriver.Saturation saturation = OpenLoopDriver.findSaturation(
+                    Config.intValue("load.start", 100), Config.intValue("load.max", 100_000),
+                    Duration.ofSeconds(Config.intValue("load.step", 10)), objective,
+                    Config.intValue("load.refine", 3), executors, task);
+            for (OpenLoopDriver.Result step : saturation.steps()) {
+                System.out.printf("  %-9s | %s | %s%n", model, step, step.sustained(objective) ? "✅" : "❌");
+                ResultsFile.Row row = results.row().put("Model", model);
+                step.addTo(row);
+                row.put("Sustained", step.sustained(objective));
+            }
+            System.out.printf("📈 Model: %-9s | Saturation throughput: %.1f req/s (p99 ≤ %d ms)%n",
+                    model, saturation.sustainedRate(), objective.toMillis());
+            results.row()
+                    .put("Model", model)
+                    .put("Profile", "saturation")
+                    .put("Saturation (req/s)", saturation.sustainedRate())
+                    .put("SLO p99 (ms)", objective.toMillis());
+        } else {
+            Duration duration = Duration.ofSeconds(Config.intValue("load.duration", 30));
+            OpenLoopDriver.Result result = OpenLoopDriver.runRouted(ArrivalProfile.parse(spec), duration,
+                    duration.multipliedBy(2), executors, task);
+            System.out.printf("Model: %-9s | %s%n", model, result);
+            ResultsFile.Row row = results.row().put("Model", model);
+            result.addTo(row);
+        }
+    }
+}
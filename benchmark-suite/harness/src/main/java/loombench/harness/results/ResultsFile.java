@@ -0,0 +1,189 @@
+package loombench.harness.results;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Machine-readable results of one benchmark run, written as
+ * {@code <name>.csv} and {@code <name>.json}.
+ *
+ * <p>The CSV starts with {@code # key: value} metadata lines (read with
+ * {@code pandas.read_csv(path, comment="#")}); the JSON holds the same
+ * metadata under {@code "metadata"} and the rows under {@code "results"}.
+ * Column names are whatever the benchmark puts in its rows, so the
+ * graph-code scripts can use them as-is.
+ */
+public final class ResultsFile {
+
+    private final Path directory;
+    private final String name;
+    private final Map<String, Object> metadata;
+    private final List<Map<String, Object>> rows = new ArrayList<>();
+
+    public ResultsFile(Path directory, String name) {
+        this.directory = directory;
+        this.name = name;
+        this.metadata = RunMetadata.capture();
+        metadata.put("benchmark", name);
+    }
+
+    /**
+     * Results file for a standalone benchmark class, written to
+     * {@code -Dresults.dir} (default: the working directory) as
+     * {@code results_<benchmark>.csv/.json}.
+     */
+    public static ResultsFile forBenchmark(String benchmark) {
+        ResultsFile file = new ResultsFile(Path.of(System.getProperty("results.dir", ".")), "results_" + benchmark);
+        file.metadata.put("benchmark", benchmark);
+        return file;
+    }
+
+    public ResultsFile meta(String key, Object value) {
+        metadata.put(key, value);
+        return this;
+    }
+
+    /** Starts a new row; values are added in column order. */
+    public synchronized Row row() {
+        Row row = new Row();
+        rows.add(row.values);
+        return row;
+    }
+
+    public Path csvPath() {
+        return directory.resolve(name + ".csv");
+    }
+
+    public Path jsonPath() {
+        return directory.resolve(name + ".json");
+    }
+
+    /** Writes (or rewrites) both files with every row added so far. */
+    public synchronized void write() {
+        try {
+            Files.createDirectories(directory);
+            try (Writer writer = Files.newBufferedWriter(csvPath())) {
+                writeCsv(writer);
+            }
+            try (Writer writer = Files.newBufferedWriter(jsonPath())) {
+                writeJson(writer);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write results " + name, e);
+        }
+    }
+
+    private void writeCsv(Writer writer) throws IOException {
+        for (Map.Entry<String, Object> entry : metadata.entrySet()) {
+            writer.write("# " + entry.getKey() + ": " + entry.getValue() + "\n");
+        }
+        Set<String> columns = new LinkedHashSet<>();
+        for (Map<String, Object> row : rows) {
+            columns.addAll(row.keySet());
+        }
+        List<String> header = new ArrayList<>();
+        for (String column : columns) {
+            header.add(csvCell(column));
+        }
+        writer.write(String.join(",", header) + "\n");
+        for (Map<String, Object> row : rows) {
+            List<String> cells = new ArrayList<>();
+            for (String column : columns) {
+                Object value = row.get(column);
+                cells.add(value == null ? "" : csvCell(format(value)));
+            }
+            writer.write(String.join(",", cells) + "\n");
+        }
+    }
+
+    private void writeJson(Writer writer) throws IOException {
+        writer.write("{\n  \"metadata\": ");
+        writer.write(jsonObject(metadata));
+        writer.write(",\n  \"results\": [");
+        for (int i = 0; i < rows.size(); i++) {
+            writer.write(i == 0 ? "\n    " : ",\n    ");
+            writer.write(jsonObject(rows.get(i)));
+        }
+        writer.write("\n  ]\n}\n");
+    }
+
+    private static String format(Object value) {
+        if (value instanceof Double || value instanceof Float) {
+            double d = ((Number) value).doubleValue();
+            return Double.isFinite(d) ? String.format(Locale.ROOT, "%.4f", d) : "";
+        }
+        return String.valueOf(value);
+    }
+
+    private static String csvCell(String value) {
+        if (value.contains(",") || value.contains("\"") || value.contains("\n")) {
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+        return value;
+    }
+
+    private static String jsonObject(Map<String, Object> map) {
+        StringBuilder sb = new StringBuilder("{");
+        boolean first = true;
+        for (Map.Entry<String, Object> entry : map.entrySet()) {
+            if (!first) sb.append(", ");
+            first = false;
+            sb.append(jsonString(entry.getKey())).append(": ").append(jsonValue(entry.getValue()));
+        }
+        return sb.append('}').toString();
+    }
+
+    private static String jsonValue(Object value) {
+        if (value == null) {
+            return "null";
+        }
+        if (value instanceof Number number) {
+            return format(number).isEmpty() ? "null" : format(number);
+        }
+        if (value instanceof Boolean) {
+            return value.toString();
+        }
+        return jsonString(value.toString());
+    }
+
+    private static String jsonString(String value) {
+        StringBuilder sb = new StringBuilder("\"");
+        for (char c : value.toCharArray()) {
+            switch (c) {
+                case '"' -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                case '\t' -> sb.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+                }
+            }
+        }
+        return sb.append('"').toString();
+    }
+
+    /** One result row. */
+    public static final class Row {
+        private final Map<String, Object> values = new LinkedHashMap<>();
+
+        public Row put(String column, Object value) {
+            values.put(column, value);
+            return this;
+        }
+    }
+}
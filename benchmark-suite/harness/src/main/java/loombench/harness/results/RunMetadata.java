@@ -0,0 +1,40 @@
+package loombench.harness.results;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Describes the JVM and machine a result was measured on, so result files
+ * from different JDK builds, collectors or boxes can be compared directly.
+ */
+public final class RunMetadata {
+
+    private RunMetadata() {
+    }
+
+    public static Map<String, Object> capture() {
+        Map<String, Object> meta = new LinkedHashMap<>();
+        meta.put("timestamp", OffsetDateTime.now().toString());
+        meta.put("javaVersion", System.getProperty("java.version"));
+        meta.put("javaVendor", System.getProperty("java.vendor"));
+        meta.put("vmName", System.getProperty("java.vm.name"));
+        meta.put("vmVersion", System.getProperty("java.vm.version"));
+        meta.put("osName", System.getProperty("os.name"));
+        meta.put("osArch", System.getProperty("os.arch"));
+        meta.put("availableProcessors", Runtime.getRuntime().availableProcessors());
+        meta.put("maxHeapMB", Runtime.getRuntime().maxMemory() / (1024 * 1024));
+
+        List<String> collectors = new ArrayList<>();
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            collectors.add(gc.getName());
+        }
+        meta.put("gc", String.join(" + ", collectors));
+        meta.put("jvmFlags", String.join(" ", ManagementFactory.getRuntimeMXBean().getInputArguments()));
+        return meta;
+    }
+}
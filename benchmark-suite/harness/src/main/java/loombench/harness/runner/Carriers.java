@@ -0,0 +1,36 @@
+package loombench.harness.runner;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Carrier settings of one forked cell: the {@link loombench.harness.CarrierScheduler}
+ * and the JDK scheduler's parallelism / maxPoolSize. A size of 0 leaves the
+ * JDK default (parallelism = cores, maxPoolSize = max(parallelism, 256)).
+ */
+record Carriers(String scheduler, int parallelism, int maxPoolSize) {
+
+    static final Carriers DEFAULT = new Carriers("default", 0, 0);
+
+    /** System properties and module flags the forked JVM needs. */
+    List<String> jvmArgs() {
+        List<String> args = new ArrayList<>();
+        if (parallelism > 0) {
+            args.add("-Djdk.virtualThreadScheduler.parallelism=" + parallelism);
+        }
+        if (maxPoolSize > 0) {
+            args.add("-Djdk.virtualThreadScheduler.maxPoolSize=" + maxPoolSize);
+        }
+        if (!scheduler.equals("default")) {
+            args.add("-Dcarrier.scheduler=" + scheduler);
+            args.add("--add-opens=java.base/java.lang=ALL-UNNAMED");
+            args.add("--add-exports=java.base/jdk.internal.misc=ALL-UNNAMED");
+        }
+        return args;
+    }
+
+    /** Short form for log file names and console output, e.g. {@code fixed-p4-m256}. */
+    String label() {
+        return scheduler + "-p" + (parallelism > 0 ? parallelism : "def") + "-m" + (maxPoolSize > 0 ? maxPoolSize : "def");
+    }
+}
@@ -0,0 +1,56 @@
+package loombench.harness.runner;
+
+import loombench.harness.results.ResultsFile;
+
+/**
+ * Outcome of one matrix cell. A forked cell prints it as a single
+ * {@value #PREFIX} line on stdout, which the parent parses back.
+ */
+public record CellResult(String model, String workload, int tasks, int poolSize,
+                         double timeSec, double throughput,
+                         double meanMs, double p50Ms, double p90Ms, double p99Ms, double p999Ms, double maxMs,
+                         int gcCount, long gcPauseMs, long gcMaxPauseMs, double allocMBps) {
+
+    public static final String PREFIX = "@result ";
+
+    /** Tab-separated so workload specs never need escaping. */
+    public String toLine() {
+        return PREFIX + String.join("\t", model, workload, Integer.toString(tasks), Integer.toString(poolSize),
+                Double.toString(timeSec), Double.toString(throughput), Double.toString(meanMs),
+                Double.toString(p50Ms), Double.toString(p90Ms), Double.toString(p99Ms),
+                Double.toString(p999Ms), Double.toString(maxMs), Integer.toString(gcCount),
+                Long.toString(gcPauseMs), Long.toString(gcMaxPauseMs), Double.toString(allocMBps));
+    }
+
+    public static CellResult parse(String line) {
+        String[] f = line.substring(PREFIX.length()).split("\t");
+        if (f.length != 16) {
+            throw new IllegalArgumentException("Malformed result line: " + line);
+        }
+        return new CellResult(f[0], f[1], Integer.parseInt(f[2]), Integer.parseInt(f[3]),
+                Double.parseDouble(f[4]), Double.parseDouble(f[5]), Double.parseDouble(f[6]),
+                Double.parseDouble(f[7]), Double.parseDouble(f[8]), Double.parseDouble(f[9]),
+                Double.parseDouble(f[10]), Double.parseDouble(f[11]), Integer.parseInt(f[12]),
+                Long.parseLong(f[13]), Long.parseLong(f[14]), Double.parseDouble(f[15]));
+    }
+
+    /** Adds this result's columns to a results-file row. */
+    public void addTo(ResultsFile.Row row) {
+        row.put("model", model)
+                .put("workload", workload)
+                .put("tasks", tasks)
+                .put("poolSize", poolSize)
+                .put("timeSec", timeSec)
+                .put("throughput", throughput)
+                .put("meanMs", meanMs)
+                .put("p50Ms", p50Ms)
+                .put("p90Ms", p90Ms)
+                .put("p99Ms", p99Ms)
+                .put("p999Ms", p999Ms)
+                .put("maxMs", maxMs)
+                .put("gcCount", gcCount)
+                .put("gcPauseMs", gcPauseMs)
+                .put("gcMaxPauseMs", gcMaxPauseMs)
+                .put("allocMBps", allocMBps);
+    }
+}
@@ -0,0 +1,43 @@
+package loombench.harness.runner;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Collector and heap size of one forked cell. {@code default} leaves the
+ * choice to the JVM and to the matrix's {@code jvmArgs}; a heap size sets
+ * {@code -Xms} and {@code -Xmx} to the same value after those jvmArgs, so it
+ * wins over them.
+ */
+record GcSetting(String gc, String heap) {
+
+    static final List<String> COLLECTORS = List.of("default", "g1", "zgc", "zgc-single", "parallel", "serial");
+
+    GcSetting {
+        if (!COLLECTORS.contains(gc)) {
+            throw new IllegalArgumentException("Unknown collector '" + gc + "' (expected one of " + COLLECTORS + ")");
+        }
+    }
+
+    /** Collector and heap flags the forked JVM needs. */
+    List<String> jvmArgs() {
+        List<String> args = new ArrayList<>(switch (gc) {
+            case "g1" -> List.of("-XX:+UseG1GC");
+            case "zgc" -> List.of("-XX:+UseZGC", "-XX:+ZGenerational");
+            case "zgc-single" -> List.of("-XX:+UseZGC", "-XX:-ZGenerational");
+            case "parallel" -> List.of("-XX:+UseParallelGC");
+            case "serial" -> List.of("-XX:+UseSerialGC");
+            default -> List.<String>of();
+        });
+        if (!heap.equals("default")) {
+            args.add("-Xms" + heap);
+            args.add("-Xmx" + heap);
+        }
+        return args;
+    }
+
+    /** Short form for log file names and console output, e.g. {@code zgc-2g}. */
+    String label() {
+        return gc + "-" + heap;
+    }
+}
@@ -0,0 +1,130 @@
+package loombench.harness.runner;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+
+import loombench.harness.ThreadModel;
+
+/**
+ * Benchmark matrix read from a properties file. Every list is comma-separated;
+ * see {@code benchmark-suite/matrix.properties} for the full set of keys.
+ */
+public final class MatrixConfig {
+
+    final List<ThreadModel> models;
+    final List<String> workloads;
+    final List<Integer> tasks;
+    final List<Integer> poolSizes;
+    final List<Carriers> carriers;
+    final List<GcSetting> gcSettings;
+    final int repetitions;
+    final int warmups;
+    final List<String> jvmArgs;
+    final Path outputDir;
+    final long cellTimeoutSec;
+
+    private MatrixConfig(Properties p) {
+        models = new ArrayList<>();
+        for (String model : list(p, "models", "PLATFORM,VIRTUAL,FORK_JOIN,HYBRID")) {
+            models.add(ThreadModel.valueOf(model.toUpperCase().replace('-', '_')));
+        }
+        workloads = list(p, "workloads", "sleep:millis=10");
+        tasks = ints(p, "tasks", "1000");
+        poolSizes = ints(p, "poolSizes", "0");
+        carriers = new ArrayList<>();
+        for (String scheduler : list(p, "carrierSchedulers", "default")) {
+            for (int parallelism : ints(p, "carrierParallelism", "0")) {
+                for (int maxPoolSize : ints(p, "carrierMaxPoolSize", "0")) {
+                    carriers.add(new Carriers(scheduler, parallelism, maxPoolSize));
+                }
+            }
+        }
+        gcSettings = new ArrayList<>();
+        for (String gc : list(p, "gcs", "default")) {
+            for (String heap : list(p, "heapSizes", "default")) {
+                gcSettings.add(new GcSetting(gc, heap));
+            }
+        }
+        repetitions = Integer.parseInt(p.getProperty("repetitions", "1").trim());
+        warmups = Integer.parseInt(p.getProperty("warmups", "1").trim());
+        String args = p.getProperty("jvmArgs", "").trim();
+        jvmArgs = args.isEmpty() ? List.of() : Arrays.asList(args.split("\\s+"));
+        outputDir = Path.of(p.getProperty("outputDir", "results").trim());
+        cellTimeoutSec = Long.parseLong(p.getProperty("cellTimeoutSec", "3600").trim());
+    }
+
+    public static MatrixConfig load(Path file) throws IOException {
+        Properties p = new Properties();
+        try (Reader reader = Files.newBufferedReader(file)) {
+            p.load(reader);
+        }
+        // -Dmatrix.<key>=... on the runner's command line overrides the file
+        for (String name : System.getProperties().stringPropertyNames()) {
+            if (name.startsWith("matrix.")) {
+                p.setProperty(name.substring("matrix.".length()), System.getProperty(name));
+            }
+        }
+        return new MatrixConfig(p);
+    }
+
+    /** Pool sizes swept for {@code model}; Virtual and Adaptive ignore the pool size, one column is enough. */
+    List<Integer> poolSizesFor(ThreadModel model) {
+        return model == ThreadModel.VIRTUAL || model == ThreadModel.ADAPTIVE ? poolSizes.subList(0, 1) : poolSizes;
+    }
+
+    /**
+     * Carrier settings swept for {@code model}. Platform, ForkJoin and
+     * parallel streams never mount a virtual thread and run once with the
+     * defaults. Virtual and Bounded Virtual start theirs through
+     * CarrierScheduler and sweep everything; Hybrid and Adaptive use the JDK
+     * scheduler, so they sweep its sizes but skip custom schedulers.
+     */
+    List<Carriers> carriersFor(ThreadModel model) {
+        if (model == ThreadModel.PLATFORM || model == ThreadModel.FORK_JOIN || model == ThreadModel.PARALLEL_STREAM) {
+            return List.of(Carriers.DEFAULT);
+        }
+        if (model == ThreadModel.VIRTUAL || model == ThreadModel.BOUNDED_VIRTUAL) {
+            return carriers;
+        }
+        List<Carriers> result = new ArrayList<>();
+        for (Carriers c : carriers) {
+            if (c.scheduler().equals("default")) {
+                result.add(c);
+            }
+        }
+        return result.isEmpty() ? List.of(Carriers.DEFAULT) : result;
+    }
+
+    /** Number of forked JVMs the matrix will start. */
+    int cellCount() {
+        int perWorkload = 0;
+        for (ThreadModel model : models) {
+            perWorkload += poolSizesFor(model).size() * carriersFor(model).size();
+        }
+        return perWorkload * workloads.size() * tasks.size() * gcSettings.size() * repetitions;
+    }
+
+    private static List<String> list(Properties p, String key, String defaultValue) {
+        List<String> result = new ArrayList<>();
+        for (String item : p.getProperty(key, defaultValue).split(",")) {
+            if (!item.isBlank()) {
+                result.add(item.trim());
+            }
+        }
+        return result;
+    }
+
+    private static List<Integer> ints(Properties p, String key, String defaultValue) {
+        List<Integer> result = new ArrayList<>();
+        for (String item : list(p, key, defaultValue)) {
+            result.add(Integer.parseInt(item.replace("_", "")));
+        }
+        return result;
+    }
+}
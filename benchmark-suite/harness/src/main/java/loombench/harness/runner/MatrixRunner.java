@@ -0,0 +1,227 @@
+package loombench.harness.runner;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import loombench.harness.ThreadModel;
+import loombench.harness.WorkloadRunner;
+import loombench.harness.results.ResultsFile;
+
+/**
+ * Single entry point for sweeping the benchmark matrix:
+ * models × workloads × task counts × pool sizes × carrier settings × collectors × heap sizes × repetitions.
+ *
+ * <pre>
+ * java -cp harness/target/classes loombench.harness.runner.MatrixRunner matrix.properties
+ * </pre>
+ *
+ * Every cell runs in a fresh JVM (a {@link WorkloadRunner} child) so JIT
+ * state, heap and carrier threads never leak between cells. Each cell's
+ * output goes to {@code <outputDir>/<timestamp>/cells/} and the parsed
+ * results to {@code results.csv} / {@code results.json} next to it.
+ *
+ * <p>Carrier settings ({@code carrierSchedulers}, {@code carrierParallelism},
+ * {@code carrierMaxPoolSize}) are passed to the forked JVM as system
+ * properties. When more than one is swept, the run ends with a table of how
+ * throughput and p99 scale with the carrier count.
+ *
+ * <p>{@code gcs} and {@code heapSizes} pick the collector and heap of every
+ * cell (see {@link GcSetting}). Each cell reports its own GC pauses and
+ * allocation rate. When more than one combination is swept, the run ends
+ * with a collector × heap table per workload, model and task count,
+ * also written to {@code gc_sensitivity.csv}.
+ */
+public class MatrixRunner {
+
+    public static void main(String[] args) throws Exception {
+        Path configFile = Path.of(args.length > 0 ? args[0] : "matrix.properties");
+        MatrixConfig config = MatrixConfig.load(configFile);
+
+        Path runDir = config.outputDir.resolve(LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")));
+        Path cellDir = runDir.resolve("cells");
+        Files.createDirectories(cellDir);
+        Files.copy(configFile, runDir.resolve(configFile.getFileName()), StandardCopyOption.REPLACE_EXISTING);
+
+        System.out.println("===== Matrix: " + config.cellCount() + " cells -> " + runDir + " =====");
+
+        ResultsFile results = new ResultsFile(runDir, "results")
+                .meta("matrix", configFile.getFileName().toString())
+                .meta("cellJvmArgs", String.join(" ", config.jvmArgs));
+        Map<String, Map<Carriers, List<CellResult>>> scaling = new LinkedHashMap<>();
+        Map<String, Map<GcSetting, List<CellResult>>> gcSensitivity = new LinkedHashMap<>();
+        int succeeded = 0;
+        int cell = 0;
+        for (String workload : config.workloads) {
+            for (int tasks : config.tasks) {
+                for (ThreadModel model : config.models) {
+                    for (int pool : config.poolSizesFor(model)) {
+                        for (Carriers carriers : config.carriersFor(model)) {
+                            for (GcSetting gc : config.gcSettings) {
+                                for (int rep = 1; rep <= config.repetitions; rep++) {
+                                    cell++;
+                                    Path log = cellDir.resolve(String.format("%04d-%s-%d-%d-%s-%s-r%d.log",
+                                            cell, model, tasks, pool, carriers.label(), gc.label(), rep));
+                                    CellResult result = runCell(config, model, workload, tasks, pool, carriers, gc, log);
+                                    if (result != null) {
+                                        ResultsFile.Row row = results.row().put("repetition", rep);
+                                        result.addTo(row);
+                                        row.put("carrierScheduler", carriers.scheduler())
+                                                .put("carrierParallelism", carriers.parallelism())
+                                                .put("carrierMaxPoolSize", carriers.maxPoolSize())
+                                                .put("gc", gc.gc())
+                                                .put("heap", gc.heap());
+                                        results.write(); // keep partial results if the sweep is interrupted
+                                        String group = workload + " | " + model + " | " + tasks + " tasks | pool " + pool;
+                                        scaling.computeIfAbsent(group, k -> new LinkedHashMap<>())
+                                                .computeIfAbsent(carriers, k -> new ArrayList<>()).add(result);
+                                        gcSensitivity.computeIfAbsent(group + " | " + carriers.label(), k -> new LinkedHashMap<>())
+                                                .computeIfAbsent(gc, k -> new ArrayList<>()).add(result);
+                                        succeeded++;
+                                    }
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        if (config.carriers.size() > 1) {
+            printCarrierScaling(scaling);
+        }
+        if (config.gcSettings.size() > 1) {
+            ResultsFile table = new ResultsFile(runDir, "gc_sensitivity")
+                    .meta("matrix", configFile.getFileName().toString());
+            printGcSensitivity(gcSensitivity, table);
+            table.write();
+            System.out.println("GC table -> " + table.csvPath());
+        }
+        System.out.println("\nAll cells done: " + succeeded + "/" + config.cellCount() + " succeeded. Results -> " + results.csvPath());
+    }
+
+    /** Mean throughput and p99 per carrier setting, relative to the first setting of each group. */
+    static void printCarrierScaling(Map<String, Map<Carriers, List<CellResult>>> scaling) {
+        System.out.println("\n===== Carrier scaling =====");
+        for (Map.Entry<String, Map<Carriers, List<CellResult>>> group : scaling.entrySet()) {
+            if (group.getValue().size() < 2) {
+                continue; // Platform / ForkJoin cells, or a single setting
+            }
+            System.out.println(group.getKey());
+            double baseline = -1;
+            for (Map.Entry<Carriers, List<CellResult>> entry : group.getValue().entrySet()) {
+                double throughput = entry.getValue().stream().mapToDouble(CellResult::throughput).average().orElse(0);
+                double p99 = entry.getValue().stream().mapToDouble(CellResult::p99Ms).average().orElse(0);
+                if (baseline < 0) {
+                    baseline = throughput;
+                }
+                System.out.printf("  %-22s | Throughput: %10.2f req/sec (×%.2f) | p99: %10.3f ms%n",
+                        entry.getKey().label(), throughput, baseline > 0 ? throughput / baseline : 0, p99);
+            }
+        }
+    }
+
+    /**
+     * Mean throughput, p99, GC pause time and allocation rate per collector
+     * and heap size, throughput relative to the first combination of each group.
+     */
+    static void printGcSensitivity(Map<String, Map<GcSetting, List<CellResult>>> sensitivity, ResultsFile table) {
+        System.out.println("\n===== GC sensitivity =====");
+        for (Map.Entry<String, Map<GcSetting, List<CellResult>>> group : sensitivity.entrySet()) {
+            System.out.println(group.getKey());
+            double baseline = -1;
+            for (Map.Entry<GcSetting, List<CellResult>> entry : group.getValue().entrySet()) {
+                List<CellResult> cells = entry.getValue();
+                double throughput = cells.stream().mapToDouble(CellResult::throughput).average().orElse(0);
+                double p99 = cells.stream().mapToDouble(CellResult::p99Ms).average().orElse(0);
+                double pauses = cells.stream().mapToInt(CellResult::gcCount).average().orElse(0);
+                double pauseMs = cells.stream().mapToLong(CellResult::gcPauseMs).average().orElse(0);
+                long maxPauseMs = cells.stream().mapToLong(CellResult::gcMaxPauseMs).max().orElse(0);
+                double allocMBps = cells.stream().mapToDouble(CellResult::allocMBps).average().orElse(0);
+                if (baseline < 0) {
+                    baseline = throughput;
+                }
+                System.out.printf("  %-22s | Throughput: %10.2f req/sec (×%.2f) | p99: %10.3f ms"
+                                + " | GC: %6.1f pauses, %8.1f ms (max %d ms) | Alloc: %8.1f MB/s%n",
+                        entry.getKey().label(), throughput, baseline > 0 ? throughput / baseline : 0, p99,
+                        pauses, pauseMs, maxPauseMs, allocMBps);
+                table.row().put("group", group.getKey())
+                        .put("gc", entry.getKey().gc())
+                        .put("heap", entry.getKey().heap())
+                        .put("cells", cells.size())
+                        .put("throughput", throughput)
+                        .put("p99Ms", p99)
+                        .put("gcCount", pauses)
+                        .put("gcPauseMs", pauseMs)
+                        .put("gcMaxPauseMs", maxPauseMs)
+                        .put("allocMBps", allocMBps);
+            }
+        }
+    }
+
+    static CellResult runCell(MatrixConfig config, ThreadModel model, String workload, int tasks, int pool,
+                              Carriers carriers, GcSetting gc, Path log) throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(config.jvmArgs);
+        command.addAll(gc.jvmArgs());
+        command.addAll(carriers.jvmArgs());
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(WorkloadRunner.class.getName());
+        command.addAll(List.of("--model", model.name(), "--workload", workload, "--tasks", Integer.toString(tasks),
+                "--pool", Integer.toString(pool), "--warmup", Integer.toString(config.warmups), "--emit-result"));
+
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        AtomicBoolean timedOut = new AtomicBoolean();
+        Thread watchdog = Thread.ofVirtual().start(() -> {
+            try {
+                if (!process.waitFor(config.cellTimeoutSec, TimeUnit.SECONDS)) {
+                    timedOut.set(true);
+                    process.destroyForcibly();
+                }
+            } catch (InterruptedException ignored) {
+            }
+        });
+
+        CellResult result = null;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()));
+             BufferedWriter writer = Files.newBufferedWriter(log)) {
+            writer.write(String.join(" ", command));
+            writer.newLine();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                writer.write(line);
+                writer.newLine();
+                if (line.startsWith(CellResult.PREFIX)) {
+                    result = CellResult.parse(line);
+                } else if (line.startsWith("Model:")) {
+                    System.out.println(line);
+                }
+            }
+        }
+        int exit = process.waitFor();
+        watchdog.interrupt();
+
+        if (timedOut.get()) {
+            System.err.println("❌ Cell timed out after " + config.cellTimeoutSec + "s: see " + log);
+            return null;
+        }
+        if (exit != 0 || result == null) {
+            System.err.println("❌ Cell failed (exit " + exit + "): see " + log);
+            return null;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,126 @@
+package loombench.harness.sampling;
+
+import java.util.Arrays;
+
+/**
+ * Counts the virtual-thread scheduler's carrier threads while a run is in
+ * progress.
+ *
+ * <p>The scheduler starts with {@code parallelism} carriers (one per core by
+ * default). When a virtual thread blocks in a way that cannot unmount it, such
+ * as a file read or {@code Object.wait()}, the scheduler temporarily adds a
+ * carrier to compensate, up to {@code jdk.virtualThreadScheduler.maxPoolSize}.
+ * A peak above the parallelism shows the run relied on that compensation.
+ * Compensating carriers idle out only after about 30 seconds, so they are
+ * counted against the parallelism rather than against the count at start. The
+ * sampler matches carriers by class ({@code jdk.internal.misc.CarrierThread}),
+ * so it is not confused by other ForkJoinPools; that also covers the
+ * {@code forkjoin} custom scheduler, whose workers are the same class. The
+ * {@code fixed} scheduler's platform threads are matched by their
+ * {@link #FIXED_CARRIER_PREFIX} name.
+ */
+public final class CarrierThreadSampler {
+
+    private static final String CARRIER_CLASS = "jdk.internal.misc.CarrierThread";
+
+    /** Name prefix of the {@code fixed} carrier scheduler's threads. */
+    public static final String FIXED_CARRIER_PREFIX = "fixed-carrier-";
+
+    /** Carrier counts over one run. */
+    public record Summary(int parallelism, int peak) {
+
+        /** Carriers beyond the scheduler's parallelism. */
+        public int compensated() {
+            return Math.max(0, peak - parallelism);
+        }
+
+        @Override
+        public String toString() {
+            return "Carriers: peak " + peak + " (parallelism " + parallelism + ", +" + compensated() + " compensating)";
+        }
+    }
+
+    private final long intervalMillis;
+    private final Counter counter = new Counter();
+    private final Thread thread;
+    private volatile boolean running = true;
+    private volatile int peak;
+
+    private CarrierThreadSampler(long intervalMillis) {
+        this.intervalMillis = intervalMillis;
+        this.peak = counter.count();
+        this.thread = Thread.ofPlatform().daemon().name("carrier-sampler").start(this::loop);
+    }
+
+    /** Counts carriers now and every {@code intervalMillis} until {@link #stop()}. */
+    public static CarrierThreadSampler start(long intervalMillis) {
+        return new CarrierThreadSampler(intervalMillis);
+    }
+
+    /**
+     * Live carrier threads right now. Enumerates the root thread group rather
+     * than {@code Thread.getAllStackTraces()}, which walks every stack and
+     * costs milliseconds with 100k platform threads alive.
+     */
+    public static int count() {
+        return new Counter().count();
+    }
+
+    /**
+     * {@link #count()} for samplers that call it every few milliseconds: the
+     * enumeration array is kept between calls and only grows, so a tick with
+     * 100k platform threads alive allocates nothing.
+     */
+    static final class Counter {
+        private Thread[] threads = new Thread[0];
+
+        int count() {
+            ThreadGroup root = Thread.currentThread().getThreadGroup();
+            while (root.getParent() != null) {
+                root = root.getParent();
+            }
+            int estimate = root.activeCount() + 64;
+            if (threads.length < estimate) {
+                threads = new Thread[estimate + estimate / 2];
+            }
+            int live = root.enumerate(threads, true);
+            int carriers = 0;
+            for (int i = 0; i < live; i++) {
+                if (threads[i].getClass().getName().equals(CARRIER_CLASS)
+                        || threads[i].getName().startsWith(FIXED_CARRIER_PREFIX)) {
+                    carriers++;
+                }
+            }
+            Arrays.fill(threads, 0, live, null); // do not keep exited threads reachable
+            return carriers;
+        }
+    }
+
+    /** {@code jdk.virtualThreadScheduler.parallelism}, defaulting to the core count like the JDK. */
+    public static int parallelism() {
+        String value = System.getProperty("jdk.virtualThreadScheduler.parallelism");
+        return value == null ? Runtime.getRuntime().availableProcessors() : Integer.parseInt(value);
+    }
+
+    private void loop() {
+        while (running) {
+            try {
+                Thread.sleep(intervalMillis);
+            } catch (InterruptedException e) {
+                break;
+            }
+            peak = Math.max(peak, counter.count());
+        }
+    }
+
+    public Summary stop() {
+        running = false;
+        thread.interrupt();
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return new Summary(parallelism(), Math.max(peak, counter.count()));
+    }
+}
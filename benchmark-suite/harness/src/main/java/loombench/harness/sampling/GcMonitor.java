@@ -0,0 +1,147 @@
+package loombench.harness.sampling;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import javax.management.ListenerNotFoundException;
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+
+/**
+ * Stop-the-world GC pauses and heap allocation between {@link #start()} and
+ * {@link #stop()}.
+ *
+ * <p>Pauses come one by one from the collectors' completion notifications, so
+ * the maximum is a real pause and not a per-interval sum. Every bean is
+ * watched and only the "end of GC cycle" notifications of the ZGC and
+ * Shenandoah "Cycles" beans are dropped: those cycles run beside the
+ * application, and their pauses arrive separately from the "Pauses" beans.
+ * "G1 Concurrent GC" is kept because it reports G1's Remark and Cleanup
+ * pauses. Durations have the collectors' millisecond resolution, so ZGC's
+ * sub-millisecond pauses count but add 0 ms.
+ * Allocation is the JVM-wide {@code getTotalThreadAllocatedBytes()}, which
+ * includes what virtual threads allocate on their carriers and what exited
+ * threads allocated.
+ */
+public final class GcMonitor {
+
+    /** One stop-the-world collection. */
+    public record Pause(long elapsedMillis, String collector, String cause, long durationMillis) {
+    }
+
+    /** GC activity of one run. */
+    public record Summary(List<Pause> pauses, long allocatedBytes, long wallNanos) {
+
+        public int count() {
+            return pauses.size();
+        }
+
+        public long totalPauseMillis() {
+            return pauses.stream().mapToLong(Pause::durationMillis).sum();
+        }
+
+        public long maxPauseMillis() {
+            return pauses.stream().mapToLong(Pause::durationMillis).max().orElse(0);
+        }
+
+        /** Heap allocation rate in MB/s; -1 when the JVM does not track allocated bytes. */
+        public double allocationMBPerSec() {
+            return allocatedBytes < 0 || wallNanos <= 0 ? -1 : allocatedBytes / (1024.0 * 1024) / (wallNanos / 1e9);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d pauses, %d ms total, %d ms max | Allocated: %.1f MB (%.1f MB/s)",
+                    count(), totalPauseMillis(), maxPauseMillis(), allocatedBytes / (1024.0 * 1024), allocationMBPerSec());
+        }
+    }
+
+    private final long startNanos = System.nanoTime();
+    private final long allocatedAtStart = allocatedBytes();
+    private final List<Pause> pauses = Collections.synchronizedList(new ArrayList<>());
+    private final NotificationListener listener = this::onGc;
+    private final List<NotificationEmitter> emitters = new ArrayList<>();
+
+    private GcMonitor() {
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            if (gc instanceof NotificationEmitter emitter) {
+                emitter.addNotificationListener(listener, null, null);
+                emitters.add(emitter);
+            }
+        }
+    }
+
+    /** Starts recording pauses and allocation from now. */
+    public static GcMonitor start() {
+        return new GcMonitor();
+    }
+
+    /**
+     * Collectors whose count and time are stop-the-world pauses, i.e. every
+     * bean except the ZGC and Shenandoah "Cycles" ones; see {@link #isPause(String)}.
+     */
+    public static List<GarbageCollectorMXBean> pauseCollectors() {
+        List<GarbageCollectorMXBean> result = new ArrayList<>();
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            if (isPause(gc.getName())) {
+                result.add(gc);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Whether a collector bean, or a notification from it, stands for
+     * stop-the-world pauses. The concurrent-cycle beans are named
+     * "... Cycles" and notify "end of GC cycle"; all others, including
+     * "G1 Concurrent GC" (Remark and Cleanup), notify pauses.
+     */
+    public static boolean isPause(String collector) {
+        return !collector.endsWith("Cycles");
+    }
+
+    /** Bytes allocated on the heap by all threads since JVM start, -1 where unsupported. */
+    public static long allocatedBytes() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threads) {
+            return threads.getTotalThreadAllocatedBytes();
+        }
+        return -1;
+    }
+
+    private void onGc(Notification notification, Object handback) {
+        if (!notification.getType().equals(GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION)) {
+            return;
+        }
+        GarbageCollectionNotificationInfo info =
+                GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+        if (!isPause(info.getGcName()) || info.getGcAction().contains("cycle")) {
+            return;
+        }
+        pauses.add(new Pause((System.nanoTime() - startNanos) / 1_000_000, info.getGcName(),
+                info.getGcCause(), info.getGcInfo().getDuration()));
+    }
+
+    /** Stops listening and returns what happened since {@link #start()}. */
+    public Summary stop() {
+        long wall = System.nanoTime() - startNanos;
+        long allocatedNow = allocatedBytes();
+        for (NotificationEmitter emitter : emitters) {
+            try {
+                emitter.removeNotificationListener(listener);
+            } catch (ListenerNotFoundException e) {
+                // never added
+            }
+        }
+        long allocated = allocatedAtStart < 0 || allocatedNow < 0 ? -1 : allocatedNow - allocatedAtStart;
+        synchronized (pauses) {
+            return new Summary(List.copyOf(pauses), allocated, wall);
+        }
+    }
+}
@@ -0,0 +1,262 @@
+package loombench.harness.sampling;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * In-JVM replacement for forking {@code jcmd <pid> VM.native_memory summary}.
+ *
+ * <p>A daemon thread samples, every few milliseconds:
+ * <ul>
+ *   <li>committed thread-stack, heap, metaspace and total memory from Native
+ *       Memory Tracking, read through the DiagnosticCommand MBean;</li>
+ *   <li>RSS and OS thread count from {@code /proc/self/status} and PSS from
+ *       {@code /proc/self/smaps_rollup}.</li>
+ * </ul>
+ * Without {@code -XX:NativeMemoryTracking=summary} the NMT columns are -1
+ * (heap and metaspace fall back to the memory MXBeans) and a warning is
+ * printed once instead of failing silently.
+ */
+public final class NativeMemorySampler {
+
+    private static final Pattern CATEGORY =
+            Pattern.compile("^-\\s+(Java Heap|Thread|Metaspace) \\(reserved=\\d+KB, committed=(\\d+)KB", Pattern.MULTILINE);
+    private static final Pattern THREAD_COUNT = Pattern.compile("\\(thread #(\\d+)\\)");
+    private static final Pattern STACK = Pattern.compile("\\(stack: reserved=\\d+KB, committed=(\\d+)KB\\)");
+    private static final Pattern TOTAL = Pattern.compile("^Total: reserved=\\d+KB, committed=(\\d+)KB", Pattern.MULTILINE);
+
+    private static volatile boolean warned;
+
+    /** One point of the time series; sizes are in KB, -1 when unavailable. */
+    public record Sample(long elapsedMillis, int nmtThreads, long stackCommittedKB, long threadCommittedKB,
+                         long heapCommittedKB, long metaspaceCommittedKB, long nmtTotalKB,
+                         long rssKB, long pssKB, int osThreads) {
+
+        static final String CSV_HEADER = "elapsedMs,nmtThreads,stackCommittedKB,threadCommittedKB,"
+                + "heapCommittedKB,metaspaceCommittedKB,nmtTotalKB,rssKB,pssKB,osThreads";
+
+        String toCsv() {
+            return elapsedMillis + "," + nmtThreads + "," + stackCommittedKB + "," + threadCommittedKB + ","
+                    + heapCommittedKB + "," + metaspaceCommittedKB + "," + nmtTotalKB + ","
+                    + rssKB + "," + pssKB + "," + osThreads;
+        }
+
+        /** Component-wise maximum of two samples. */
+        Sample max(Sample o) {
+            return new Sample(Math.max(elapsedMillis, o.elapsedMillis), Math.max(nmtThreads, o.nmtThreads),
+                    Math.max(stackCommittedKB, o.stackCommittedKB), Math.max(threadCommittedKB, o.threadCommittedKB),
+                    Math.max(heapCommittedKB, o.heapCommittedKB), Math.max(metaspaceCommittedKB, o.metaspaceCommittedKB),
+                    Math.max(nmtTotalKB, o.nmtTotalKB), Math.max(rssKB, o.rssKB), Math.max(pssKB, o.pssKB),
+                    Math.max(osThreads, o.osThreads));
+        }
+    }
+
+    private final long intervalMillis;
+    private final long startNanos = System.nanoTime();
+    private final List<Sample> samples = new ArrayList<>();
+    private final Thread thread;
+    private volatile boolean running = true;
+
+    private NativeMemorySampler(long intervalMillis) {
+        this.intervalMillis = intervalMillis;
+        samples.add(sampleNow());
+        this.thread = Thread.ofPlatform().daemon().name("memory-sampler").start(this::loop);
+    }
+
+    /** Takes a baseline sample and keeps sampling every {@code intervalMillis} until {@link #stop()}. */
+    public static NativeMemorySampler start(long intervalMillis) {
+        return new NativeMemorySampler(intervalMillis);
+    }
+
+    private void loop() {
+        while (running) {
+            try {
+                Thread.sleep(intervalMillis);
+            } catch (InterruptedException e) {
+                break;
+            }
+            samples.add(sampleNow());
+        }
+    }
+
+    /** Stops sampling, takes a final sample and returns the series. */
+    public Summary stop() {
+        running = false;
+        thread.interrupt();
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        samples.add(sampleNow());
+        return new Summary(List.copyOf(samples));
+    }
+
+    private Sample sampleNow() {
+        long elapsed = (System.nanoTime() - startNanos) / 1_000_000;
+        int nmtThreads = -1;
+        long stack = -1, thread = -1, heap = -1, metaspace = -1, total = -1;
+
+        String nmt = nativeMemorySummary();
+        if (nmt != null) {
+            Matcher m = CATEGORY.matcher(nmt);
+            while (m.find()) {
+                long committed = Long.parseLong(m.group(2));
+                switch (m.group(1)) {
+                    case "Java Heap" -> heap = committed;
+                    case "Thread" -> thread = committed;
+                    case "Metaspace" -> metaspace = committed;
+                    default -> { }
+                }
+            }
+            nmtThreads = (int) firstLong(THREAD_COUNT, nmt);
+            stack = firstLong(STACK, nmt);
+            total = firstLong(TOTAL, nmt);
+        }
+        if (heap < 0) {
+            heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getCommitted() / 1024;
+        }
+        if (metaspace < 0) {
+            for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+                if (pool.getName().equals("Metaspace")) {
+                    metaspace = pool.getUsage().getCommitted() / 1024;
+                }
+            }
+        }
+
+        long[] status = procStatus();
+        return new Sample(elapsed, nmtThreads, stack, thread, heap, metaspace, total,
+                status[0], procPss(), (int) status[1]);
+    }
+
+    /** NMT summary text, or null when NMT is off or the MBean is missing. */
+    static String nativeMemorySummary() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName("com.sun.management:type=DiagnosticCommand");
+            String out = (String) server.invoke(name, "vmNativeMemory",
+                    new Object[]{new String[]{"summary"}}, new String[]{String[].class.getName()});
+            if (out == null || !out.contains("Total:")) {
+                warnOnce("Native Memory Tracking is off; run with -XX:NativeMemoryTracking=summary for thread-stack numbers");
+                return null;
+            }
+            return out;
+        } catch (Exception e) {
+            warnOnce("Native memory summary unavailable: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /** {VmRSS in KB, Threads} from /proc/self/status, -1 where unavailable. */
+    public static long[] procStatus() {
+        long[] result = {-1, -1};
+        try {
+            for (String line : Files.readAllLines(Path.of("/proc/self/status"))) {
+                if (line.startsWith("VmRSS:")) {
+                    result[0] = parseKB(line);
+                } else if (line.startsWith("Threads:")) {
+                    result[1] = Long.parseLong(line.substring("Threads:".length()).trim());
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            // not Linux
+        }
+        return result;
+    }
+
+    /** Proportional set size in KB from /proc/self/smaps_rollup, -1 where unavailable. */
+    static long procPss() {
+        try {
+            for (String line : Files.readAllLines(Path.of("/proc/self/smaps_rollup"))) {
+                if (line.startsWith("Pss:")) {
+                    return parseKB(line);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            // not Linux, or a kernel without smaps_rollup
+        }
+        return -1;
+    }
+
+    private static long parseKB(String line) {
+        String value = line.substring(line.indexOf(':') + 1).trim();
+        return Long.parseLong(value.substring(0, value.indexOf(' ')));
+    }
+
+    private static long firstLong(Pattern pattern, String text) {
+        Matcher m = pattern.matcher(text);
+        return m.find() ? Long.parseLong(m.group(1)) : -1;
+    }
+
+    private static void warnOnce(String message) {
+        if (!warned) {
+            warned = true;
+            System.err.println("⚠ " + message);
+        }
+    }
+
+    /** Time series of one run with its baseline and peaks. */
+    public static final class Summary {
+        private final List<Sample> timeline;
+        private final Sample peak;
+
+        Summary(List<Sample> timeline) {
+            this.timeline = timeline;
+            Sample p = timeline.get(0);
+            for (Sample s : timeline) {
+                p = p.max(s);
+            }
+            this.peak = p;
+        }
+
+        public List<Sample> timeline() {
+            return timeline;
+        }
+
+        public Sample baseline() {
+            return timeline.get(0);
+        }
+
+        /** Component-wise peak over the whole run. */
+        public Sample peak() {
+            return peak;
+        }
+
+        /** Peak committed thread-stack growth per started thread, in KB; -1 without NMT. */
+        public double stackPerThreadKB(int threads) {
+            return peak.stackCommittedKB() < 0 ? -1 : delta(baseline().stackCommittedKB(), peak.stackCommittedKB(), threads);
+        }
+
+        /** Peak RSS growth per started thread, in KB; -1 when RSS is unavailable. */
+        public double rssPerThreadKB(int threads) {
+            return peak.rssKB() < 0 ? -1 : delta(baseline().rssKB(), peak.rssKB(), threads);
+        }
+
+        private static double delta(long before, long peak, int threads) {
+            return threads == 0 ? 0 : (double) (peak - before) / threads;
+        }
+
+        public void writeTimeline(Path file) {
+            try (Writer writer = Files.newBufferedWriter(file)) {
+                writer.write(Sample.CSV_HEADER + "\n");
+                for (Sample s : timeline) {
+                    writer.write(s.toCsv() + "\n");
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not write " + file, e);
+            }
+        }
+    }
+}
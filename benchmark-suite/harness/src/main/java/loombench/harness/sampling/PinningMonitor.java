@@ -0,0 +1,195 @@
+package loombench.harness.sampling;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+
+import loombench.harness.Config;
+import loombench.harness.results.ResultsFile;
+
+/**
+ * Detects virtual threads that are secretly running serialized on their
+ * carriers, through an in-process JFR {@link RecordingStream}:
+ * <ul>
+ *   <li>{@code jdk.VirtualThreadPinned}: a virtual thread blocked while pinned
+ *       (inside {@code synchronized} or a native frame) and held its carrier;</li>
+ *   <li>{@code jdk.VirtualThreadSubmitFailed}: the scheduler rejected a
+ *       continuation;</li>
+ *   <li>{@code jdk.ThreadPark} on a virtual thread: a park that did not unmount,
+ *       so the carrier parked with it.</li>
+ * </ul>
+ * Enabled with {@code -Dpinning} (threshold {@code -Dpinning.threshold.ms},
+ * default 0 = every event). When disabled, {@link #fromProperty()} returns a
+ * monitor whose reports are empty and cost nothing.
+ *
+ * <p>JFR delivers events in batches about once a second. {@link #drain()}
+ * commits a marker event and waits until the stream has delivered it, so a
+ * report holds exactly the events recorded before the call.
+ */
+public final class PinningMonitor implements AutoCloseable {
+
+    private static final Duration DRAIN_TIMEOUT = Duration.ofSeconds(10);
+    private static final int TOP_FRAMES = 3;
+
+    /** Events seen since the previous {@link #drain()}. */
+    public record Report(long pinnedCount, long pinnedNanos, long maxPinnedNanos, long submitFailed,
+                         long carrierParks, long carrierParkNanos, List<String> topPinnedFrames) {
+
+        static final Report EMPTY = new Report(0, 0, 0, 0, 0, 0, List.of());
+
+        /** True when a virtual-thread result may have run serialized on its carriers. */
+        public boolean pinned() {
+            return pinnedCount > 0 || carrierParks > 0 || submitFailed > 0;
+        }
+
+        /** Adds the pinning columns to a results row. */
+        public void addTo(ResultsFile.Row row) {
+            row.put("Pinned", pinnedCount)
+                    .put("Pinned (ms)", pinnedNanos / 1_000_000.0)
+                    .put("Max Pinned (ms)", maxPinnedNanos / 1_000_000.0)
+                    .put("Carrier Parks", carrierParks)
+                    .put("Submit Failed", submitFailed);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Pinned: %d (total %.2f ms, max %.2f ms) | Carrier parks: %d (%.2f ms) | Submit failed: %d%s",
+                    pinnedCount, pinnedNanos / 1_000_000.0, maxPinnedNanos / 1_000_000.0,
+                    carrierParks, carrierParkNanos / 1_000_000.0, submitFailed,
+                    topPinnedFrames.isEmpty() ? "" : " | at " + String.join(", ", topPinnedFrames));
+        }
+    }
+
+    @Name("loombench.DrainMarker")
+    @Label("Pinning Monitor Drain Marker")
+    @StackTrace(false)
+    static final class DrainMarker extends Event {
+        long id;
+    }
+
+    private final RecordingStream stream;
+    private final BlockingQueue<Report> reports = new LinkedBlockingQueue<>();
+    private long nextMarker;
+
+    // Touched only by the stream's dispatch thread
+    private long pinnedCount, pinnedNanos, maxPinnedNanos, submitFailed, carrierParks, carrierParkNanos;
+    private final Map<String, Long> pinnedFrames = new HashMap<>();
+
+    private PinningMonitor(Duration threshold) {
+        if (threshold == null) {
+            stream = null;
+            return;
+        }
+        stream = new RecordingStream();
+        stream.enable("jdk.VirtualThreadPinned").withThreshold(threshold).withStackTrace();
+        stream.enable("jdk.VirtualThreadSubmitFailed");
+        stream.enable("jdk.ThreadPark").withThreshold(threshold).withoutStackTrace();
+        stream.enable(DrainMarker.class);
+        stream.onEvent("jdk.VirtualThreadPinned", this::onPinned);
+        stream.onEvent("jdk.VirtualThreadSubmitFailed", e -> submitFailed++);
+        stream.onEvent("jdk.ThreadPark", this::onPark);
+        stream.onEvent("loombench.DrainMarker", e -> reports.add(takeReport()));
+        stream.startAsync();
+    }
+
+    /** Starts recording when {@code -Dpinning} is set, otherwise returns a disabled monitor. */
+    public static PinningMonitor fromProperty() {
+        String value = System.getProperty("pinning");
+        boolean enabled = value != null && !value.equalsIgnoreCase("false");
+        return enabled ? start(Duration.ofMillis(Config.intValue("pinning.threshold.ms", 0))) : new PinningMonitor(null);
+    }
+
+    /** Records pinned and parked events at or above {@code threshold}. */
+    public static PinningMonitor start(Duration threshold) {
+        return new PinningMonitor(threshold);
+    }
+
+    public boolean enabled() {
+        return stream != null;
+    }
+
+    /** Returns everything recorded since the previous call and starts a new period. */
+    public synchronized Report drain() {
+        if (stream == null) {
+            return Report.EMPTY;
+        }
+        DrainMarker marker = new DrainMarker();
+        marker.id = nextMarker++;
+        marker.commit();
+        try {
+            Report report = reports.poll(DRAIN_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+            if (report == null) {
+                System.err.println("⚠ JFR did not deliver pinning events within " + DRAIN_TIMEOUT.toSeconds() + "s");
+                return Report.EMPTY;
+            }
+            return report;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Report.EMPTY;
+        }
+    }
+
+    private void onPinned(RecordedEvent event) {
+        long nanos = event.getDuration().toNanos();
+        pinnedCount++;
+        pinnedNanos += nanos;
+        maxPinnedNanos = Math.max(maxPinnedNanos, nanos);
+        pinnedFrames.merge(applicationFrame(event.getStackTrace()), 1L, Long::sum);
+    }
+
+    private void onPark(RecordedEvent event) {
+        if (event.getThread() != null && event.getThread().isVirtual()) {
+            carrierParks++;
+            carrierParkNanos += event.getDuration().toNanos();
+        }
+    }
+
+    /** First frame outside the JDK, i.e. the benchmark code that held the carrier. */
+    private static String applicationFrame(RecordedStackTrace stackTrace) {
+        if (stackTrace == null) {
+            return "?";
+        }
+        for (RecordedFrame frame : stackTrace.getFrames()) {
+            String type = frame.getMethod().getType().getName();
+            if (!type.startsWith("java.") && !type.startsWith("jdk.") && !type.startsWith("sun.")) {
+                return type + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+            }
+        }
+        List<RecordedFrame> frames = stackTrace.getFrames();
+        return frames.isEmpty() ? "?" : frames.get(0).getMethod().getType().getName() + "." + frames.get(0).getMethod().getName();
+    }
+
+    private Report takeReport() {
+        List<String> top = new ArrayList<>();
+        pinnedFrames.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .limit(TOP_FRAMES)
+                .forEach(e -> top.add(e.getKey() + " ×" + e.getValue()));
+        Report report = new Report(pinnedCount, pinnedNanos, maxPinnedNanos, submitFailed,
+                carrierParks, carrierParkNanos, List.copyOf(top));
+        pinnedCount = pinnedNanos = maxPinnedNanos = submitFailed = carrierParks = carrierParkNanos = 0;
+        pinnedFrames.clear();
+        return report;
+    }
+
+    @Override
+    public void close() {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package loombench.harness.sampling;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Process-wide CPU accounting that costs the same whether the JVM runs ten
+ * threads or a hundred thousand.
+ *
+ * <p>Summing {@code ThreadMXBean.getThreadCpuTime} over every live thread is
+ * one native call per thread, forgets threads that already exited and only
+ * sees virtual threads through their carriers. This sampler instead reads the
+ * process CPU time from {@code OperatingSystemMXBean.getProcessCpuTime()} and
+ * the user/system split from {@code /proc/self/stat} on a daemon thread, so a
+ * run reports average, peak (per interval) and user/sys utilization.
+ *
+ * <p>Utilization is expressed like {@code top}: 100% is one fully busy core.
+ */
+public final class ProcessCpuSampler {
+
+    /** Kernel USER_HZ; 100 on every mainstream Linux architecture. */
+    private static final long CLOCK_TICKS_PER_SECOND = 100;
+    private static final long NANOS_PER_TICK = 1_000_000_000L / CLOCK_TICKS_PER_SECOND;
+
+    /** One point of the series; CPU times are cumulative nanoseconds, -1 when unavailable. */
+    public record Sample(long elapsedNanos, long cpuNanos, long userNanos, long systemNanos) {
+    }
+
+    private final long intervalMillis;
+    private final long startNanos = System.nanoTime();
+    private final List<Sample> samples = new ArrayList<>();
+    private final Thread thread;
+    private volatile boolean running = true;
+
+    private ProcessCpuSampler(long intervalMillis) {
+        this.intervalMillis = intervalMillis;
+        samples.add(sampleNow());
+        this.thread = Thread.ofPlatform().daemon().name("cpu-sampler").start(this::loop);
+    }
+
+    /** Takes a baseline sample and keeps sampling every {@code intervalMillis} until {@link #stop()}. */
+    public static ProcessCpuSampler start(long intervalMillis) {
+        return new ProcessCpuSampler(intervalMillis);
+    }
+
+    private void loop() {
+        while (running) {
+            try {
+                Thread.sleep(intervalMillis);
+            } catch (InterruptedException e) {
+                break;
+            }
+            samples.add(sampleNow());
+        }
+    }
+
+    /** Stops sampling, takes a final sample and returns the series. */
+    public Summary stop() {
+        running = false;
+        thread.interrupt();
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        samples.add(sampleNow());
+        return new Summary(List.copyOf(samples));
+    }
+
+    private Sample sampleNow() {
+        long[] stat = procStat();
+        long cpu = processCpuTime();
+        if (cpu < 0 && stat[0] >= 0) {
+            cpu = stat[0] + stat[1];
+        }
+        return new Sample(System.nanoTime() - startNanos, cpu, stat[0], stat[1]);
+    }
+
+    /** Process CPU time in ns from the platform MXBean, -1 when unsupported. */
+    static long processCpuTime() {
+        if (ManagementFactory.getOperatingSystemMXBean() instanceof com.sun.management.OperatingSystemMXBean os) {
+            return os.getProcessCpuTime();
+        }
+        return -1;
+    }
+
+    /** {utime, stime} in ns from /proc/self/stat, -1 where unavailable. */
+    static long[] procStat() {
+        long[] result = {-1, -1};
+        try {
+            String stat = Files.readString(Path.of("/proc/self/stat"));
+            // comm (field 2) may contain spaces; everything after its closing paren is fixed-width
+            String[] fields = stat.substring(stat.lastIndexOf(')') + 2).trim().split(" ");
+            result[0] = Long.parseLong(fields[11]) * NANOS_PER_TICK; // field 14: utime
+            result[1] = Long.parseLong(fields[12]) * NANOS_PER_TICK; // field 15: stime
+        } catch (IOException | RuntimeException e) {
+            // not Linux
+        }
+        return result;
+    }
+
+    /** Utilization over one run. */
+    public static final class Summary {
+        private final List<Sample> timeline;
+        private final double peakPercent;
+
+        Summary(List<Sample> timeline) {
+            this.timeline = timeline;
+            double peak = 0;
+            for (int i = 1; i < timeline.size(); i++) {
+                peak = Math.max(peak, percent(timeline.get(i - 1), timeline.get(i)));
+            }
+            this.peakPercent = peak;
+        }
+
+        public List<Sample> timeline() {
+            return timeline;
+        }
+
+        /** Wall-clock time covered by the series, in seconds. */
+        public double wallSeconds() {
+            return (last().elapsedNanos() - first().elapsedNanos()) / 1_000_000_000.0;
+        }
+
+        /** Process CPU time consumed during the run, in ns; -1 when unavailable. */
+        public long cpuNanos() {
+            return first().cpuNanos() < 0 ? -1 : last().cpuNanos() - first().cpuNanos();
+        }
+
+        /** Average utilization over the run (100% = one core busy). */
+        public double averagePercent() {
+            return percent(first(), last());
+        }
+
+        /** Highest utilization seen in any single sampling interval. */
+        public double peakPercent() {
+            return peakPercent;
+        }
+
+        /** Average utilization spent in user mode; -1 without /proc. */
+        public double userPercent() {
+            return share(first().userNanos(), last().userNanos());
+        }
+
+        /** Average utilization spent in the kernel; -1 without /proc. */
+        public double systemPercent() {
+            return share(first().systemNanos(), last().systemNanos());
+        }
+
+        /**
+         * /proc ticks are 10 ms coarse, so user and system are scaled to the
+         * precise MXBean total instead of being reported as raw tick counts.
+         */
+        private double share(long before, long after) {
+            Sample a = first(), b = last();
+            if (before < 0 || a.userNanos() < 0) {
+                return -1;
+            }
+            long ticks = (b.userNanos() - a.userNanos()) + (b.systemNanos() - a.systemNanos());
+            return ticks == 0 ? 0 : averagePercent() * (after - before) / ticks;
+        }
+
+        private Sample first() {
+            return timeline.get(0);
+        }
+
+        private Sample last() {
+            return timeline.get(timeline.size() - 1);
+        }
+
+        private static double percent(Sample a, Sample b) {
+            long wall = b.elapsedNanos() - a.elapsedNanos();
+            if (wall <= 0 || a.cpuNanos() < 0) {
+                return 0;
+            }
+            return (b.cpuNanos() - a.cpuNanos()) * 100.0 / wall;
+        }
+    }
+}
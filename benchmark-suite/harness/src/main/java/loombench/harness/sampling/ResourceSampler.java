@@ -0,0 +1,238 @@
+package loombench.harness.sampling;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import loombench.harness.results.ResultsFile;
+
+/**
+ * Heap, GC, thread and RSS time series of one run, replacing the
+ * before/after {@code totalMemory() - freeMemory()} diff in runTest.
+ *
+ * <p>A daemon thread samples, every few milliseconds:
+ * <ul>
+ *   <li>used heap from the memory MXBean;</li>
+ *   <li>collection count and time of the collectors that
+ *       {@link GcMonitor#pauseCollectors()} counts as pauses, the same set
+ *       the pause log uses;</li>
+ *   <li>live platform threads from the thread MXBean (virtual threads are
+ *       not counted by the JVM) and, every {@link #CARRIER_INTERVAL_MILLIS}
+ *       at most, carriers. Counting carriers enumerates every live thread,
+ *       which with 100k platform threads is too costly for every tick and
+ *       would add the sampler's own work to the run; carriers change slowly
+ *       anyway, since compensating ones idle out after 30 seconds;</li>
+ *   <li>RSS from {@code /proc/self/status}.</li>
+ * </ul>
+ * Every GC pause is also recorded individually through a {@link GcMonitor},
+ * so a pause between two samples is not lost.
+ *
+ * <p>A GC mid-run can only lower later samples, so growth is taken from the
+ * peak: {@link Summary#heapPerThreadKB(int)} cannot go negative the way the
+ * old diff did.
+ */
+public final class ResourceSampler {
+
+    /** One point of the time series; -1 where unavailable. */
+    public record Sample(long elapsedMillis, long heapUsedKB, long gcCount, long gcPauseMillis,
+                         int liveThreads, int carriers, long rssKB) {
+
+        static final String CSV_HEADER = "elapsedMs,heapUsedKB,gcCount,gcPauseMs,liveThreads,carriers,rssKB";
+
+        String toCsv() {
+            return elapsedMillis + "," + heapUsedKB + "," + gcCount + "," + gcPauseMillis + ","
+                    + liveThreads + "," + carriers + "," + rssKB;
+        }
+    }
+
+    /** Shortest time between two carrier counts; ticks in between repeat the last count. */
+    static final long CARRIER_INTERVAL_MILLIS = 100;
+
+    private static final MemoryMXBean MEMORY = ManagementFactory.getMemoryMXBean();
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    private final long intervalMillis;
+    private final long startNanos = System.nanoTime();
+    private final List<Sample> samples = new ArrayList<>();
+    private final List<GarbageCollectorMXBean> pauseCollectors = GcMonitor.pauseCollectors();
+    private final GcMonitor gc = GcMonitor.start();
+    private final CarrierThreadSampler.Counter carrierCounter = new CarrierThreadSampler.Counter();
+    private long carriersCountedAt = Long.MIN_VALUE;
+    private int carriers;
+    private final Thread thread;
+    private volatile boolean running = true;
+
+    private ResourceSampler(long intervalMillis) {
+        this.intervalMillis = intervalMillis;
+        THREADS.resetPeakThreadCount();
+        samples.add(sampleNow());
+        this.thread = Thread.ofPlatform().daemon().name("resource-sampler").start(this::loop);
+    }
+
+    /** Takes a baseline sample and keeps sampling every {@code intervalMillis} until {@link #stop()}. */
+    public static ResourceSampler start(long intervalMillis) {
+        return new ResourceSampler(intervalMillis);
+    }
+
+    private void loop() {
+        while (running) {
+            try {
+                Thread.sleep(intervalMillis);
+            } catch (InterruptedException e) {
+                break;
+            }
+            samples.add(sampleNow());
+        }
+    }
+
+    /** Stops sampling, takes a final sample and returns the series. */
+    public Summary stop() {
+        running = false;
+        thread.interrupt();
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        samples.add(sampleNow());
+        return new Summary(List.copyOf(samples), gc.stop(), THREADS.getPeakThreadCount());
+    }
+
+    private Sample sampleNow() {
+        long now = System.nanoTime();
+        if (carriersCountedAt == Long.MIN_VALUE || now - carriersCountedAt >= CARRIER_INTERVAL_MILLIS * 1_000_000) {
+            carriers = carrierCounter.count();
+            carriersCountedAt = now;
+        }
+        long gcCount = 0, gcMillis = 0;
+        for (GarbageCollectorMXBean collector : pauseCollectors) {
+            gcCount += Math.max(0, collector.getCollectionCount());
+            gcMillis += Math.max(0, collector.getCollectionTime());
+        }
+        return new Sample((now - startNanos) / 1_000_000, MEMORY.getHeapMemoryUsage().getUsed() / 1024,
+                gcCount, gcMillis, THREADS.getThreadCount(), carriers,
+                NativeMemorySampler.procStatus()[0]);
+    }
+
+    /** Peak, mean and timeline of one run. */
+    public static final class Summary {
+        private final List<Sample> timeline;
+        private final GcMonitor.Summary gc;
+        private final int peakThreads;
+
+        Summary(List<Sample> timeline, GcMonitor.Summary gc, int peakThreads) {
+            this.timeline = timeline;
+            this.gc = gc;
+            this.peakThreads = peakThreads;
+        }
+
+        public List<Sample> timeline() {
+            return timeline;
+        }
+
+        /** Every GC pause and the heap allocation of the run. */
+        public GcMonitor.Summary gc() {
+            return gc;
+        }
+
+        public Sample baseline() {
+            return timeline.get(0);
+        }
+
+        public long peakHeapUsedKB() {
+            long peak = 0;
+            for (Sample s : timeline) {
+                peak = Math.max(peak, s.heapUsedKB());
+            }
+            return peak;
+        }
+
+        public double meanHeapUsedKB() {
+            return timeline.stream().mapToLong(Sample::heapUsedKB).average().orElse(0);
+        }
+
+        /** Peak used-heap growth over the baseline, in KB. */
+        public long heapGrowthKB() {
+            return peakHeapUsedKB() - baseline().heapUsedKB();
+        }
+
+        /** Peak used-heap growth per started thread, in KB; where parked virtual threads keep their stacks. */
+        public double heapPerThreadKB(int threads) {
+            return threads == 0 ? 0 : (double) heapGrowthKB() / threads;
+        }
+
+        /** Highest live platform-thread count, from the thread MXBean so short-lived peaks between samples count. */
+        public int peakThreads() {
+            return peakThreads;
+        }
+
+        public double meanThreads() {
+            return timeline.stream().mapToInt(Sample::liveThreads).average().orElse(0);
+        }
+
+        public int peakCarriers() {
+            return timeline.stream().mapToInt(Sample::carriers).max().orElse(0);
+        }
+
+        public double meanCarriers() {
+            return timeline.stream().mapToInt(Sample::carriers).average().orElse(0);
+        }
+
+        /** Mean RSS in KB, -1 where RSS is unavailable. */
+        public double meanRssKB() {
+            return baseline().rssKB() < 0 ? -1 : timeline.stream().mapToLong(Sample::rssKB).average().orElse(0);
+        }
+
+        public void addTo(ResultsFile.Row row) {
+            row.put("Peak Heap Used (MB)", peakHeapUsedKB() / 1024.0)
+                    .put("Mean Heap Used (MB)", meanHeapUsedKB() / 1024.0)
+                    .put("GC Count", gc.count())
+                    .put("GC Pause Total (ms)", gc.totalPauseMillis())
+                    .put("GC Pause Max (ms)", gc.maxPauseMillis())
+                    .put("Alloc Rate (MB/s)", gc.allocationMBPerSec())
+                    .put("Peak Threads", peakThreads)
+                    .put("Mean Threads", meanThreads())
+                    .put("Peak Carriers", peakCarriers())
+                    .put("Mean Carriers", meanCarriers())
+                    .put("Mean RSS (MB)", meanRssKB() < 0 ? -1 : meanRssKB() / 1024.0);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Heap used peak: %.2f MB | mean: %.2f MB | GC: %s"
+                            + " | Threads peak: %d | mean: %.0f | Carriers peak: %d | mean: %.1f | %d samples",
+                    peakHeapUsedKB() / 1024.0, meanHeapUsedKB() / 1024.0, gc, peakThreads, meanThreads(),
+                    peakCarriers(), meanCarriers(), timeline.size());
+        }
+
+        public void writeTimeline(Path file) {
+            try (Writer writer = Files.newBufferedWriter(file)) {
+                writer.write(Sample.CSV_HEADER + "\n");
+                for (Sample s : timeline) {
+                    writer.write(s.toCsv() + "\n");
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not write " + file, e);
+            }
+        }
+
+        public void writePauses(Path file) {
+            try (Writer writer = Files.newBufferedWriter(file)) {
+                writer.write("elapsedMs,collector,cause,pauseMs\n");
+                for (GcMonitor.Pause p : gc.pauses()) {
+                    writer.write(p.elapsedMillis() + "," + p.collector() + "," + p.cause() + "," + p.durationMillis() + "\n");
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not write " + file, e);
+            }
+        }
+    }
+}
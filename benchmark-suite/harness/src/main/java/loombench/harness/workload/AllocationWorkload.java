@@ -0,0 +1,38 @@
+package loombench.harness.workload;
+
+/**
+ * {@code alloc:objects=1000:bytes=128} - allocates {@code objects} byte arrays
+ * of {@code bytes} each and keeps them reachable until the task ends, to put
+ * young-generation pressure next to the thread stacks under test.
+ */
+final class AllocationWorkload implements Workload {
+
+    private final String name;
+    private final int objects;
+    private final int bytes;
+
+    AllocationWorkload(WorkloadSpec spec) {
+        this.name = spec.toString();
+        this.objects = spec.intValue("objects", 1000);
+        this.bytes = spec.intValue("bytes", 128);
+    }
+
+    @Override
+    public String name() {
+        return name;
+    }
+
+    @Override
+    public long run(int taskId) {
+        byte[][] live = new byte[objects][];
+        for (int i = 0; i < objects; i++) {
+            live[i] = new byte[bytes];
+            live[i][0] = (byte) i;
+        }
+        long checksum = 0;
+        for (byte[] array : live) {
+            checksum += array[0] + array.length;
+        }
+        return checksum;
+    }
+}
@@ -0,0 +1,69 @@
+package loombench.harness.workload;
+
+import java.util.concurrent.TimeoutException;
+
+import loombench.harness.LatencyRecorder;
+
+/**
+ * In-process stand-in for a JDBC-style connection pool: {@code size}
+ * connections, numbered {@code 0..size-1}, each held by at most one task.
+ * {@link #acquire()} blocks while every connection is out; that wait is the
+ * contention a real pool puts in front of the database. Like a real pool it
+ * gives up after a timeout, so waiters that starve each other (pinned
+ * carriers) fail instead of hanging the run.
+ *
+ * <p>The implementations differ only in how waiters block, which is what
+ * matters under virtual threads:
+ * <ul>
+ *   <li>{@code semaphore}: a fair {@link java.util.concurrent.Semaphore} in
+ *       front of the free slots;</li>
+ *   <li>{@code synchronized}: {@code Object.wait()} / {@code notify()} in a
+ *       monitor, which pins the carrier on Java 21 and makes the scheduler
+ *       add compensating carriers;</li>
+ *   <li>{@code lock}: {@link java.util.concurrent.locks.ReentrantLock} and a
+ *       {@code Condition}, which unmounts waiting virtual threads;</li>
+ *   <li>{@code lockfree}: a CAS stack of free slots; waiters poll with
+ *       backoff instead of being woken.</li>
+ * </ul>
+ */
+public interface ConnectionPool {
+
+    /** Default acquire timeout, HikariCP's {@code connectionTimeout}. */
+    long DEFAULT_TIMEOUT_MILLIS = 30_000;
+
+    /**
+     * Takes a free connection, waiting up to the pool's timeout for one, and
+     * returns its number.
+     */
+    int acquire() throws InterruptedException, TimeoutException;
+
+    /** Returns a connection taken with {@link #acquire()}. */
+    void release(int connection);
+
+    int size();
+
+    /** {@link #acquire()}, recording how long it waited into {@code waits}, timeouts included. */
+    default int acquire(LatencyRecorder waits) throws InterruptedException, TimeoutException {
+        long start = System.nanoTime();
+        try {
+            return acquire();
+        } finally {
+            waits.recordSince(start);
+        }
+    }
+
+    static ConnectionPool create(String impl, int size, long timeoutMillis) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("Connection pool size must be positive, got " + size);
+        }
+        long timeoutNanos = timeoutMillis * 1_000_000;
+        return switch (impl) {
+            case "semaphore" -> new SemaphoreConnectionPool(size, timeoutNanos);
+            case "synchronized" -> new SynchronizedConnectionPool(size, timeoutNanos);
+            case "lock" -> new LockConnectionPool(size, timeoutNanos);
+            case "lockfree" -> new LockFreeConnectionPool(size, timeoutNanos);
+            default -> throw new IllegalArgumentException("Unknown connection pool '" + impl
+                    + "' (expected semaphore, synchronized, lock or lockfree)");
+        };
+    }
+}
@@ -0,0 +1,55 @@
+package loombench.harness.workload;
+
+import java.util.concurrent.TimeoutException;
+
+/**
+ * {@code db:connections=50:millis=60/90:pool=semaphore:timeoutMs=30000} - takes a connection
+ * from a {@link ConnectionPool} shared by every task, holds it for one
+ * {@code Thread.sleep} per listed value (the query), then returns it. Unlike
+ * {@code sleep}, tasks now compete for something: with more tasks in flight
+ * than connections, the excess waits in {@link ConnectionPool#acquire()}.
+ * {@code pool} picks how waiters block (semaphore, synchronized, lock or
+ * lockfree, see {@link ConnectionPool}). Returns the connection number
+ * used, or -1 when no connection came free within {@code timeoutMs}.
+ */
+final class DatabaseWorkload implements Workload {
+
+    private final String name;
+    private final long[] millis;
+    private final ConnectionPool pool;
+
+    DatabaseWorkload(WorkloadSpec spec) {
+        this.name = spec.toString();
+        this.millis = spec.longList("millis", 60, 90);
+        this.pool = ConnectionPool.create(spec.string("pool", "semaphore"), spec.intValue("connections", 50),
+                spec.longValue("timeoutMs", ConnectionPool.DEFAULT_TIMEOUT_MILLIS));
+    }
+
+    @Override
+    public String name() {
+        return name;
+    }
+
+    @Override
+    public long run(int taskId) {
+        int connection;
+        try {
+            connection = pool.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return -1;
+        } catch (TimeoutException e) {
+            return -1;
+        }
+        try {
+            for (long ms : millis) {
+                Thread.sleep(ms);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            pool.release(connection);
+        }
+        return connection;
+    }
+}
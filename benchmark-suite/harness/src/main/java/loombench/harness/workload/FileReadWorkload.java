@@ -0,0 +1,160 @@
+package loombench.harness.workload;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * {@code file:bytes=4096:fileSize=67108864:method=raf} - every task reads
+ * {@code bytes} from a shared scratch file at an offset derived from its task
+ * id. The file is filled with random data once and deleted when the workload
+ * is closed. {@code method} picks the read path:
+ * <ul>
+ *   <li>{@code raf}: open a {@link RandomAccessFile}, seek, read, close, per
+ *       task. A blocking file read cannot unmount a virtual thread, so the
+ *       scheduler compensates by adding carriers;</li>
+ *   <li>{@code channel}: positional {@link FileChannel#read(ByteBuffer, long)}
+ *       on one shared channel, no open/close per task;</li>
+ *   <li>{@code mmap}: copy out of the file mapped once with
+ *       {@link MappedByteBuffer}s. No system call, but a page fault blocks the
+ *       carrier without the scheduler noticing;</li>
+ *   <li>{@code async}: {@link AsynchronousFileChannel} on its own thread pool,
+ *       the task waits on the returned future.</li>
+ * </ul>
+ * The scratch file has just been written, so reads hit the page cache unless
+ * {@code fileSize} is larger than free memory.
+ */
+final class FileReadWorkload implements Workload {
+
+    /** Mapped region size; regions overlap by {@code bytes} so no read straddles two. */
+    private static final long REGION_SIZE = 1L << 30;
+
+    private final String name;
+    private final int bytes;
+    private final long fileSize;
+    private final String method;
+    private final Path file;
+    private final FileChannel channel;
+    private final MappedByteBuffer[] regions;
+    private final AsynchronousFileChannel asyncChannel;
+
+    FileReadWorkload(WorkloadSpec spec) {
+        this.name = spec.toString();
+        this.bytes = spec.intValue("bytes", 4096);
+        this.fileSize = Math.max(bytes, spec.longValue("fileSize", 64L * 1024 * 1024));
+        this.method = spec.string("method", "raf");
+        if (!method.equals("raf") && !method.equals("channel") && !method.equals("mmap") && !method.equals("async")) {
+            throw new IllegalArgumentException("Unknown file method '" + method + "' (expected raf, channel, mmap or async)");
+        }
+        this.file = createScratchFile(fileSize);
+        try {
+            this.channel = method.equals("channel") || method.equals("mmap") ? FileChannel.open(file, StandardOpenOption.READ) : null;
+            this.regions = method.equals("mmap") ? map(channel, fileSize, bytes) : null;
+            this.asyncChannel = method.equals("async") ? AsynchronousFileChannel.open(file, StandardOpenOption.READ) : null;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open scratch file", e);
+        }
+    }
+
+    static Path createScratchFile(long size) {
+        try {
+            Path path = Files.createTempFile("loombench-", ".dat");
+            path.toFile().deleteOnExit();
+            byte[] chunk = new byte[1 << 20];
+            new Random(42).nextBytes(chunk);
+            try (RandomAccessFile raf = new RandomAccessFile(path.toFile(), "rw")) {
+                for (long written = 0; written < size; written += chunk.length) {
+                    raf.write(chunk, 0, (int) Math.min(chunk.length, size - written));
+                }
+            }
+            return path;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not create scratch file", e);
+        }
+    }
+
+    private static MappedByteBuffer[] map(FileChannel channel, long size, int bytes) throws IOException {
+        int count = (int) ((size + REGION_SIZE - 1) / REGION_SIZE);
+        MappedByteBuffer[] regions = new MappedByteBuffer[count];
+        for (int i = 0; i < count; i++) {
+            long position = i * REGION_SIZE;
+            regions[i] = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(size - position, REGION_SIZE + bytes));
+        }
+        return regions;
+    }
+
+    @Override
+    public String name() {
+        return name;
+    }
+
+    @Override
+    public long run(int taskId) {
+        byte[] buffer = new byte[bytes];
+        long offset = ((long) taskId * bytes) % (fileSize - bytes + 1);
+        try {
+            switch (method) {
+                case "channel" -> readFully(buffer, offset);
+                case "mmap" -> regions[(int) (offset / REGION_SIZE)].get((int) (offset % REGION_SIZE), buffer);
+                case "async" -> readAsync(buffer, offset);
+                default -> {
+                    try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "r")) {
+                        raf.seek(offset);
+                        raf.readFully(buffer);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return buffer[0] + buffer[bytes - 1];
+    }
+
+    private void readFully(byte[] buffer, long offset) throws IOException {
+        ByteBuffer target = ByteBuffer.wrap(buffer);
+        while (target.hasRemaining()) {
+            if (channel.read(target, offset + target.position()) < 0) {
+                throw new IOException("Unexpected end of scratch file at " + (offset + target.position()));
+            }
+        }
+    }
+
+    private void readAsync(byte[] buffer, long offset) throws IOException {
+        ByteBuffer target = ByteBuffer.wrap(buffer);
+        try {
+            while (target.hasRemaining()) {
+                if (asyncChannel.read(target, offset + target.position()).get() < 0) {
+                    throw new IOException("Unexpected end of scratch file at " + (offset + target.position()));
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof IOException io ? io : new IOException(e.getCause());
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            if (channel != null) {
+                channel.close();
+            }
+            if (asyncChannel != null) {
+                asyncChannel.close();
+            }
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            // deleteOnExit is still registered
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package loombench.harness.workload;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * {@code hash:bytes=4096:rounds=16:algorithm=SHA-256} - hashes a
+ * {@code bytes}-sized buffer {@code rounds} times, feeding each digest back
+ * into the buffer.
+ */
+final class HashWorkload implements Workload {
+
+    private final String name;
+    private final int bytes;
+    private final int rounds;
+    private final String algorithm;
+
+    HashWorkload(WorkloadSpec spec) {
+        this.name = spec.toString();
+        this.bytes = spec.intValue("bytes", 4096);
+        this.rounds = spec.intValue("rounds", 16);
+        this.algorithm = spec.string("algorithm", "SHA-256");
+        newDigest(); // fail fast on an unknown algorithm
+    }
+
+    private MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance(algorithm);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalArgumentException("Unknown digest algorithm " + algorithm, e);
+        }
+    }
+
+    @Override
+    public String name() {
+        return name;
+    }
+
+    @Override
+    public long run(int taskId) {
+        MessageDigest digest = newDigest();
+        byte[] buffer = new byte[bytes];
+        buffer[0] = (byte) taskId;
+        byte[] hash = null;
+        for (int i = 0; i < rounds; i++) {
+            hash = digest.digest(buffer);
+            System.arraycopy(hash, 0, buffer, 0, Math.min(hash.length, bytes));
+        }
+        return hash == null ? 0 : hash[0];
+    }
+}
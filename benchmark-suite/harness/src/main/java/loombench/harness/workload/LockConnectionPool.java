@@ -0,0 +1,61 @@
+package loombench.harness.workload;
+
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Same {@code int[]} stack as {@link SynchronizedConnectionPool}, guarded by a
+ * {@link ReentrantLock}; waiters block on a {@link Condition}, which parks
+ * and unmounts a virtual thread instead of pinning it.
+ */
+final class LockConnectionPool implements ConnectionPool {
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition available = lock.newCondition();
+    private final int[] free;
+    private final long timeoutNanos;
+    private int top;
+
+    LockConnectionPool(int size, long timeoutNanos) {
+        this.timeoutNanos = timeoutNanos;
+        this.free = new int[size];
+        for (int i = 0; i < size; i++) {
+            free[i] = i;
+        }
+        this.top = size;
+    }
+
+    @Override
+    public int acquire() throws InterruptedException, TimeoutException {
+        lock.lockInterruptibly();
+        try {
+            long remaining = timeoutNanos;
+            while (top == 0) {
+                if (remaining <= 0) {
+                    throw new TimeoutException("No connection within " + timeoutNanos / 1_000_000 + " ms");
+                }
+                remaining = available.awaitNanos(remaining);
+            }
+            return free[--top];
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void release(int connection) {
+        lock.lock();
+        try {
+            free[top++] = connection;
+            available.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        return free.length;
+    }
+}
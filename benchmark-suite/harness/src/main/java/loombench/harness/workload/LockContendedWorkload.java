@@ -0,0 +1,68 @@
+package loombench.harness.workload;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * {@code lock:type=synchronized:locks=1:work=1000} - every task takes one of
+ * {@code locks} shared locks and spins {@code work} iterations while holding
+ * it. {@code type=synchronized} uses monitors (which pin virtual threads while
+ * contended), {@code type=reentrant} uses {@link ReentrantLock}.
+ */
+final class LockContendedWorkload implements Workload {
+
+    private final String name;
+    private final boolean useMonitor;
+    private final int work;
+    private final Object[] monitors;
+    private final ReentrantLock[] locks;
+    private final long[] counters;
+
+    LockContendedWorkload(WorkloadSpec spec) {
+        this.name = spec.toString();
+        String type = spec.string("type", "synchronized");
+        if (!type.equals("synchronized") && !type.equals("reentrant")) {
+            throw new IllegalArgumentException("lock type must be synchronized or reentrant, got " + type);
+        }
+        this.useMonitor = type.equals("synchronized");
+        this.work = spec.intValue("work", 1000);
+        int count = Math.max(1, spec.intValue("locks", 1));
+        this.monitors = new Object[count];
+        this.locks = new ReentrantLock[count];
+        this.counters = new long[count];
+        for (int i = 0; i < count; i++) {
+            monitors[i] = new Object();
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    @Override
+    public String name() {
+        return name;
+    }
+
+    @Override
+    public long run(int taskId) {
+        int slot = Math.floorMod(taskId, counters.length);
+        if (useMonitor) {
+            synchronized (monitors[slot]) {
+                return criticalSection(slot);
+            }
+        }
+        ReentrantLock lock = locks[slot];
+        lock.lock();
+        try {
+            return criticalSection(slot);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private long criticalSection(int slot) {
+        long value = counters[slot];
+        for (int i = 0; i < work; i++) {
+            value = value * 31 + i;
+        }
+        counters[slot] = value;
+        return value;
+    }
+}
@@ -0,0 +1,89 @@
+package loombench.harness.workload;
+
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Treiber stack of free connections. {@code head} packs a version stamp (high
+ * 32 bits) with the top slot (low 32 bits, -1 when empty), so a slot popped
+ * and pushed back between a reader's load and its CAS cannot be mistaken for
+ * an unchanged stack. Nothing wakes a waiter: an empty pool is polled, first
+ * with {@link Thread#onSpinWait()}, then with {@code parkNanos} doubling from
+ * 1µs to 1ms, which lets a virtual thread unmount between polls.
+ */
+final class LockFreeConnectionPool implements ConnectionPool {
+
+    private static final int EMPTY = -1;
+    private static final int SPINS = 64;
+    private static final long MAX_BACKOFF_NANOS = 1_000_000;
+
+    private final int[] next;
+    private final AtomicLong head;
+    private final long timeoutNanos;
+
+    LockFreeConnectionPool(int size, long timeoutNanos) {
+        this.timeoutNanos = timeoutNanos;
+        this.next = new int[size];
+        for (int i = 0; i < size; i++) {
+            next[i] = i + 1 < size ? i + 1 : EMPTY;
+        }
+        this.head = new AtomicLong(pack(0, 0));
+    }
+
+    @Override
+    public int acquire() throws InterruptedException, TimeoutException {
+        long deadline = System.nanoTime() + timeoutNanos;
+        long backoff = 1_000;
+        for (int attempt = 0; ; attempt++) {
+            long current = head.get();
+            int top = slot(current);
+            if (top != EMPTY) {
+                if (head.compareAndSet(current, pack(version(current) + 1, next[top]))) {
+                    return top;
+                }
+                continue; // lost a race against another popper or pusher, retry at once
+            }
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+            if (System.nanoTime() - deadline >= 0) {
+                throw new TimeoutException("No connection within " + timeoutNanos / 1_000_000 + " ms");
+            }
+            if (attempt < SPINS) {
+                Thread.onSpinWait();
+            } else {
+                LockSupport.parkNanos(backoff);
+                backoff = Math.min(backoff * 2, MAX_BACKOFF_NANOS);
+            }
+        }
+    }
+
+    @Override
+    public void release(int connection) {
+        while (true) {
+            long current = head.get();
+            next[connection] = slot(current);
+            if (head.compareAndSet(current, pack(version(current) + 1, connection))) {
+                return;
+            }
+        }
+    }
+
+    @Override
+    public int size() {
+        return next.length;
+    }
+
+    private static long pack(int version, int slot) {
+        return ((long) version << 32) | (slot & 0xFFFF_FFFFL);
+    }
+
+    private static int version(long head) {
+        return (int) (head >>> 32);
+    }
+
+    private static int slot(long head) {
+        return (int) head;
+    }
+}
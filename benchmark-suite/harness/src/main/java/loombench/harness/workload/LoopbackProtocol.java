@@ -0,0 +1,134 @@
+package loombench.harness.workload;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * What the loopback servers speak. Clients know the exact response length up
+ * front, so every client style can read "exactly n bytes" without parsing.
+ * <ul>
+ *   <li>{@code echo}: the request is {@code bytes} of payload and comes back
+ *       unchanged;</li>
+ *   <li>{@code http}: an HTTP/1.1-like {@code GET /<bytes>} request, answered
+ *       with a fixed header and a {@code bytes}-long body. The server has to
+ *       find the end of the request head before it can answer, like a real
+ *       request parser.</li>
+ * </ul>
+ */
+enum LoopbackProtocol {
+
+    ECHO {
+        @Override
+        byte[] request(int bytes, int taskId) {
+            byte[] payload = new byte[bytes];
+            payload[0] = (byte) taskId;
+            return payload;
+        }
+
+        @Override
+        int responseLength(int bytes) {
+            return bytes;
+        }
+
+        @Override
+        Responder newResponder() {
+            return input -> {
+                ByteBuffer output = ByteBuffer.allocate(input.remaining());
+                output.put(input).flip();
+                return output;
+            };
+        }
+    },
+
+    HTTP {
+        @Override
+        byte[] request(int bytes, int taskId) {
+            return ("GET /" + bytes + " HTTP/1.1\r\nHost: loopback\r\nX-Task: " + taskId + "\r\n\r\n")
+                    .getBytes(StandardCharsets.US_ASCII);
+        }
+
+        @Override
+        int responseLength(int bytes) {
+            return httpResponse(bytes).length;
+        }
+
+        @Override
+        Responder newResponder() {
+            return new HttpResponder();
+        }
+    };
+
+    /** Server side of one connection; not thread-safe, a connection is served by one thread at a time. */
+    interface Responder {
+        /** Consumes all of {@code input}; returns the bytes to send back, or null if none are due yet. */
+        ByteBuffer onData(ByteBuffer input);
+    }
+
+    private static final Map<Integer, byte[]> HTTP_RESPONSES = new ConcurrentHashMap<>();
+
+    abstract byte[] request(int bytes, int taskId);
+
+    abstract int responseLength(int bytes);
+
+    abstract Responder newResponder();
+
+    static LoopbackProtocol parse(String name) {
+        return switch (name) {
+            case "echo" -> ECHO;
+            case "http" -> HTTP;
+            default -> throw new IllegalArgumentException("Unknown protocol '" + name + "' (expected echo or http)");
+        };
+    }
+
+    private static byte[] httpResponse(int bytes) {
+        return HTTP_RESPONSES.computeIfAbsent(bytes, n -> {
+            byte[] head = ("HTTP/1.1 200 OK\r\nContent-Type: application/octet-stream\r\nContent-Length: " + n + "\r\n\r\n")
+                    .getBytes(StandardCharsets.US_ASCII);
+            byte[] response = new byte[head.length + n];
+            System.arraycopy(head, 0, response, 0, head.length);
+            return response;
+        });
+    }
+
+    /** Collects the request head up to the blank line, then answers with the size named in the path. */
+    private static final class HttpResponder implements Responder {
+        private final StringBuilder head = new StringBuilder(64);
+
+        @Override
+        public ByteBuffer onData(ByteBuffer input) {
+            ByteBuffer output = null;
+            while (input.hasRemaining()) {
+                head.append((char) input.get());
+                int n = head.length();
+                if (n >= 4 && head.charAt(n - 1) == '\n' && head.charAt(n - 2) == '\r'
+                        && head.charAt(n - 3) == '\n' && head.charAt(n - 4) == '\r') {
+                    output = append(output, httpResponse(requestedBytes()));
+                    head.setLength(0);
+                }
+            }
+            return output;
+        }
+
+        private int requestedBytes() {
+            int start = head.indexOf("/") + 1;
+            int end = head.indexOf(" ", start);
+            try {
+                return Integer.parseInt(head.substring(start, end));
+            } catch (RuntimeException e) {
+                return 0;
+            }
+        }
+
+        private static ByteBuffer append(ByteBuffer output, byte[] response) {
+            if (output == null) {
+                return ByteBuffer.wrap(response);
+            }
+            // Pipelined requests in one read: rare, the clients wait for each response
+            ByteBuffer both = ByteBuffer.allocate(output.remaining() + response.length);
+            both.put(output).put(response).flip();
+            return both;
+        }
+    }
+}
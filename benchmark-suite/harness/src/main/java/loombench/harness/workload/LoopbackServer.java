@@ -0,0 +1,29 @@
+package loombench.harness.workload;
+
+import java.net.InetSocketAddress;
+
+/**
+ * Server bound to an ephemeral loopback port for the {@code socket} workload.
+ * {@code server=threads} serves each connection on its own virtual thread with
+ * blocking sockets; {@code server=nio} serves every connection from one
+ * selector thread with non-blocking channels.
+ *
+ * <p>Both reset a connection once the client has closed its side, so neither
+ * end is left in TIME_WAIT, even for clients that cannot set {@code SO_LINGER}
+ * themselves ({@code client=async}).
+ */
+interface LoopbackServer extends AutoCloseable {
+
+    InetSocketAddress address();
+
+    @Override
+    void close();
+
+    static LoopbackServer start(String type, LoopbackProtocol protocol, int backlog) {
+        return switch (type) {
+            case "threads" -> new ThreadedLoopbackServer(protocol, backlog);
+            case "nio" -> new SelectorLoopbackServer(protocol, backlog);
+            default -> throw new IllegalArgumentException("Unknown server '" + type + "' (expected threads or nio)");
+        };
+    }
+}
@@ -0,0 +1,134 @@
+package loombench.harness.workload;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import loombench.harness.Config;
+import loombench.harness.LatencyRecorder;
+import loombench.harness.results.ResultsFile;
+
+/**
+ * Connection-pool contention for the standalone I/O and mixed benchmarks:
+ * while a pool is {@linkplain #runWith installed}, every {@link #query} holds
+ * one of its connections for the duration of the I/O work, so the usual
+ * models end up fighting for {@code -Ddb.connections} connections.
+ *
+ * <pre>
+ * java -Ddb.pools=synchronized,lock,lockfree -Ddb.connections=50 -Ddb.timeout.ms=30000 IOThreadBenchmark
+ * </pre>
+ *
+ * A query that gets no connection within the timeout does not run. It counts
+ * in {@link Report#timeouts()}, and the benchmarks leave it out of
+ * {@code Completed}, {@code Throughput} and the latency percentiles, so a run
+ * where most queries starved cannot look like a fast one.
+ */
+public final class PoolContention {
+
+    /** Acquire waits and timeouts since the previous {@link #drain()}. */
+    public record Report(String pool, LatencyRecorder.Snapshot waits, int timeouts) {
+
+        public void addTo(ResultsFile.Row row) {
+            row.put("Pool", pool)
+                    .put("Acquire Timeouts", timeouts)
+                    .put("Acquire p50", waits.percentile(50) / 1_000_000.0)
+                    .put("Acquire p90", waits.percentile(90) / 1_000_000.0)
+                    .put("Acquire p99", waits.percentile(99) / 1_000_000.0)
+                    .put("Acquire Max", waits.max() / 1_000_000.0);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("pool: %s | n: %d | p50: %.3f | p90: %.3f | p99: %.3f | Max: %.3f | Timeouts: %d",
+                    pool, waits.count(), waits.percentile(50) / 1_000_000.0, waits.percentile(90) / 1_000_000.0,
+                    waits.percentile(99) / 1_000_000.0, waits.max() / 1_000_000.0, timeouts);
+        }
+    }
+
+    /** Models to rerun under one pool; the standalone benchmarks' run methods throw InterruptedException. */
+    @FunctionalInterface
+    public interface Models {
+        void run() throws InterruptedException;
+    }
+
+    private static volatile PoolContention current;
+
+    private final String name;
+    private final ConnectionPool pool;
+    private volatile LatencyRecorder waits = new LatencyRecorder();
+    private final AtomicInteger timeouts = new AtomicInteger();
+
+    private PoolContention(String name, ConnectionPool pool) {
+        this.name = name;
+        this.pool = pool;
+    }
+
+    /** Pool implementations from {@code -Ddb.pools}, empty when contention runs are off. */
+    public static List<String> poolsFromProperty() {
+        List<String> pools = new ArrayList<>();
+        for (String item : System.getProperty("db.pools", "").split(",")) {
+            if (!item.isBlank()) {
+                pools.add(item.trim());
+            }
+        }
+        return pools;
+    }
+
+    /**
+     * Creates {@code impl} with {@code -Ddb.connections} connections (default 50)
+     * and {@code -Ddb.timeout.ms}, installs it for {@code models} and removes it
+     * afterwards.
+     */
+    public static void runWith(String impl, Models models) throws InterruptedException {
+        int connections = Config.intValue("db.connections", 50);
+        long timeoutMillis = Long.getLong("db.timeout.ms", ConnectionPool.DEFAULT_TIMEOUT_MILLIS);
+        System.out.println("----- Connection pool: " + impl + " (" + connections + " connections) -----");
+        current = new PoolContention(impl, ConnectionPool.create(impl, connections, timeoutMillis));
+        try {
+            models.run();
+        } finally {
+            current = null;
+        }
+    }
+
+    /**
+     * Runs {@code io} holding a connection of the installed pool, or directly
+     * when none is installed. Returns false when the query did not run: no
+     * connection came free within the timeout, or the thread was interrupted.
+     */
+    public static boolean query(Runnable io) {
+        PoolContention contention = current;
+        if (contention == null) {
+            io.run();
+            return true;
+        }
+        int connection;
+        try {
+            connection = contention.pool.acquire(contention.waits);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (TimeoutException e) {
+            contention.timeouts.incrementAndGet();
+            return false;
+        }
+        try {
+            io.run();
+        } finally {
+            contention.pool.release(connection);
+        }
+        return true;
+    }
+
+    /** Waits and timeouts of the installed pool since the last call, or null outside {@link #runWith}. */
+    public static Report drain() {
+        PoolContention contention = current;
+        if (contention == null) {
+            return null;
+        }
+        LatencyRecorder.Snapshot waits = contention.waits.snapshot();
+        contention.waits = new LatencyRecorder();
+        return new Report(contention.name, waits, contention.timeouts.getAndSet(0));
+    }
+}
@@ -0,0 +1,114 @@
+package loombench.harness.workload;
+
+/**
+ * {@code primes:limit=5000:method=wheel} - sums the primes below
+ * {@code limit}. {@code method} picks how each number is tested:
+ * <ul>
+ *   <li>{@code wheel}: the 6k ± 1 trial division from MixedThreadBenchmark;</li>
+ *   <li>{@code naive}: the plain trial division from ThreadComparisonMixedTask;</li>
+ *   <li>{@code sieve}: a lookup in a sieve built once when the workload is
+ *       created and shared read-only by every task;</li>
+ *   <li>{@code branchless}: trial division without early exit; divisibility
+ *       is or-ed into a flag, so the only branch is the loop bound.</li>
+ * </ul>
+ */
+final class PrimeWorkload implements Workload {
+
+    private final String name;
+    private final int limit;
+    private final String method;
+    private final boolean[] composite;
+
+    PrimeWorkload(WorkloadSpec spec) {
+        this.name = spec.toString();
+        this.limit = spec.intValue("limit", 5000);
+        this.method = spec.string("method", "wheel");
+        if (!method.equals("wheel") && !method.equals("naive") && !method.equals("sieve") && !method.equals("branchless")) {
+            throw new IllegalArgumentException("primes method must be wheel, naive, sieve or branchless, got " + method);
+        }
+        this.composite = method.equals("sieve") ? sieve(limit) : null;
+    }
+
+    @Override
+    public String name() {
+        return name;
+    }
+
+    @Override
+    public long run(int taskId) {
+        return switch (method) {
+            case "naive" -> {
+                long sum = 0;
+                for (int i = 2; i < limit; i++) {
+                    if (isPrimeNaive(i)) {
+                        sum += i;
+                    }
+                }
+                yield sum;
+            }
+            case "sieve" -> {
+                long sum = 0;
+                for (int i = 2; i < limit; i++) {
+                    if (!composite[i]) {
+                        sum += i;
+                    }
+                }
+                yield sum;
+            }
+            case "branchless" -> {
+                long sum = 0;
+                for (int i = 2; i < limit; i++) {
+                    sum += i & -primeFlag(i);
+                }
+                yield sum;
+            }
+            default -> {
+                long sum = 0;
+                for (int i = 2; i < limit; i++) {
+                    if (isPrime(i)) {
+                        sum += i;
+                    }
+                }
+                yield sum;
+            }
+        };
+    }
+
+    static boolean isPrime(int n) {
+        if (n <= 1) return false;
+        if (n <= 3) return true;
+        if (n % 2 == 0 || n % 3 == 0) return false;
+        for (int i = 5; i * i <= n; i += 6) {
+            if (n % i == 0 || n % (i + 2) == 0) return false;
+        }
+        return true;
+    }
+
+    static boolean isPrimeNaive(int n) {
+        for (int i = 2; i * i <= n; i++) {
+            if (n % i == 0) return false;
+        }
+        return true;
+    }
+
+    /** 1 if {@code n >= 2} is prime, 0 otherwise: {@code (n % d - 1) >>> 31} is 1 exactly when d divides n. */
+    static int primeFlag(int n) {
+        int divisible = 0;
+        for (int d = 2; d * d <= n; d++) {
+            divisible |= (n % d - 1) >>> 31;
+        }
+        return divisible ^ 1;
+    }
+
+    static boolean[] sieve(int limit) {
+        boolean[] composite = new boolean[Math.max(limit, 2)];
+        for (int i = 2; (long) i * i < limit; i++) {
+            if (!composite[i]) {
+                for (int j = i * i; j < limit; j += i) {
+                    composite[j] = true;
+                }
+            }
+        }
+        return composite;
+    }
+}
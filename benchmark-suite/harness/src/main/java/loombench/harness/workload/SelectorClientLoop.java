@@ -0,0 +1,169 @@
+package loombench.harness.workload;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * {@code client=selector}: every exchange of a run is driven by one shared
+ * client selector thread, and the calling task only waits on a future. The
+ * task thread does no socket I/O at all, so this shows what a blocking call
+ * costs when it is handed to an event loop instead of parking in the kernel.
+ */
+final class SelectorClientLoop implements AutoCloseable {
+
+    /** One connection: connect, then {@code roundTrips} × (write request, read response). */
+    private static final class Exchange {
+        final SocketChannel channel;
+        final ByteBuffer request;
+        final ByteBuffer response;
+        final CompletableFuture<Long> done = new CompletableFuture<>();
+        int tripsLeft;
+        long received;
+
+        Exchange(SocketChannel channel, byte[] request, int responseLength, int roundTrips) {
+            this.channel = channel;
+            this.request = ByteBuffer.wrap(request);
+            this.response = ByteBuffer.allocate(responseLength);
+            this.tripsLeft = roundTrips;
+        }
+    }
+
+    private final Selector selector;
+    private final Queue<Exchange> registrations = new ConcurrentLinkedQueue<>();
+    private final Thread loop;
+    private volatile boolean closed;
+
+    SelectorClientLoop() {
+        try {
+            selector = Selector.open();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open client selector", e);
+        }
+        loop = Thread.ofPlatform().daemon().name("loopback-client-selector").start(this::selectLoop);
+    }
+
+    /** Starts a connection to {@code address}; the future completes with the bytes received. */
+    CompletableFuture<Long> exchange(InetSocketAddress address, byte[] request, int responseLength, int roundTrips) {
+        SocketChannel channel = null;
+        try {
+            channel = SocketChannel.open();
+            channel.configureBlocking(false);
+            channel.setOption(StandardSocketOptions.SO_LINGER, 0);
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            channel.connect(address);
+        } catch (IOException e) {
+            closeQuietly(channel);
+            return CompletableFuture.failedFuture(e);
+        }
+        Exchange exchange = new Exchange(channel, request, responseLength, roundTrips);
+        registrations.add(exchange);
+        selector.wakeup();
+        return exchange.done;
+    }
+
+    private void selectLoop() {
+        while (!closed) {
+            try {
+                selector.select();
+            } catch (IOException e) {
+                return;
+            }
+            Exchange pending;
+            while ((pending = registrations.poll()) != null) {
+                try {
+                    pending.channel.register(selector, SelectionKey.OP_CONNECT, pending);
+                } catch (IOException e) {
+                    fail(pending, e);
+                }
+            }
+            for (SelectionKey key : selector.selectedKeys()) {
+                Exchange exchange = (Exchange) key.attachment();
+                try {
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isConnectable()) {
+                        exchange.channel.finishConnect();
+                        key.interestOps(SelectionKey.OP_WRITE);
+                    } else if (key.isWritable()) {
+                        write(key, exchange);
+                    } else if (key.isReadable()) {
+                        read(key, exchange);
+                    }
+                } catch (IOException e) {
+                    key.cancel();
+                    fail(exchange, e);
+                }
+            }
+            selector.selectedKeys().clear();
+        }
+    }
+
+    private static void write(SelectionKey key, Exchange exchange) throws IOException {
+        exchange.channel.write(exchange.request);
+        if (!exchange.request.hasRemaining()) {
+            key.interestOps(SelectionKey.OP_READ);
+        }
+    }
+
+    private static void read(SelectionKey key, Exchange exchange) throws IOException {
+        int n = exchange.channel.read(exchange.response);
+        if (n == -1) {
+            throw new IOException("Server closed the connection after " + exchange.response.position() + " bytes");
+        }
+        if (exchange.response.hasRemaining()) {
+            return;
+        }
+        exchange.received += exchange.response.position();
+        if (--exchange.tripsLeft > 0) {
+            exchange.request.rewind();
+            exchange.response.clear();
+            key.interestOps(SelectionKey.OP_WRITE);
+        } else {
+            key.cancel();
+            closeQuietly(exchange.channel);
+            exchange.done.complete(exchange.received);
+        }
+    }
+
+    private static void fail(Exchange exchange, IOException e) {
+        closeQuietly(exchange.channel);
+        exchange.done.completeExceptionally(e);
+    }
+
+    private static void closeQuietly(SocketChannel channel) {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                // ignore
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        selector.wakeup();
+        try {
+            loop.join();
+            for (SelectionKey key : selector.keys()) {
+                fail((Exchange) key.attachment(), new IOException("Client selector closed"));
+            }
+            selector.close();
+        } catch (IOException e) {
+            // ignore
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package loombench.harness.workload;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+
+/**
+ * {@code server=nio}: one platform thread accepts and serves every connection
+ * through a {@link Selector} with non-blocking channels, the event-loop shape
+ * of Netty-style servers. A connection stops reading while a response is only
+ * partly written and resumes once it has been flushed.
+ */
+final class SelectorLoopbackServer implements LoopbackServer {
+
+    /** Per-connection state, attached to its selection key. */
+    private static final class Connection {
+        final LoopbackProtocol.Responder responder;
+        ByteBuffer pending;
+
+        Connection(LoopbackProtocol.Responder responder) {
+            this.responder = responder;
+        }
+    }
+
+    private final LoopbackProtocol protocol;
+    private final Selector selector;
+    private final ServerSocketChannel serverChannel;
+    private final ByteBuffer readBuffer = ByteBuffer.allocateDirect(64 * 1024);
+    private final Thread loop;
+    private volatile boolean closed;
+
+    SelectorLoopbackServer(LoopbackProtocol protocol, int backlog) {
+        this.protocol = protocol;
+        try {
+            selector = Selector.open();
+            serverChannel = ServerSocketChannel.open();
+            serverChannel.setOption(StandardSocketOptions.SO_REUSEADDR, true);
+            serverChannel.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), backlog);
+            serverChannel.configureBlocking(false);
+            serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not start loopback selector server", e);
+        }
+        loop = Thread.ofPlatform().daemon().name("loopback-selector").start(this::selectLoop);
+    }
+
+    @Override
+    public InetSocketAddress address() {
+        try {
+            return (InetSocketAddress) serverChannel.getLocalAddress();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void selectLoop() {
+        while (!closed) {
+            try {
+                selector.select();
+            } catch (IOException e) {
+                return;
+            }
+            for (SelectionKey key : selector.selectedKeys()) {
+                try {
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isAcceptable()) {
+                        accept();
+                    } else if (key.isReadable()) {
+                        read(key);
+                    } else if (key.isWritable()) {
+                        flush(key);
+                    }
+                } catch (IOException e) {
+                    closeConnection(key); // client went away
+                }
+            }
+            selector.selectedKeys().clear();
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel;
+        while ((channel = serverChannel.accept()) != null) {
+            channel.configureBlocking(false);
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            channel.setOption(StandardSocketOptions.SO_LINGER, 0);
+            channel.register(selector, SelectionKey.OP_READ, new Connection(protocol.newResponder()));
+        }
+    }
+
+    private void read(SelectionKey key) throws IOException {
+        SocketChannel channel = (SocketChannel) key.channel();
+        Connection connection = (Connection) key.attachment();
+        readBuffer.clear();
+        if (channel.read(readBuffer) == -1) {
+            closeConnection(key);
+            return;
+        }
+        readBuffer.flip();
+        ByteBuffer response = connection.responder.onData(readBuffer);
+        if (response != null) {
+            connection.pending = response;
+            flush(key);
+        }
+    }
+
+    private void flush(SelectionKey key) throws IOException {
+        Connection connection = (Connection) key.attachment();
+        ((SocketChannel) key.channel()).write(connection.pending);
+        if (connection.pending.hasRemaining()) {
+            key.interestOps(SelectionKey.OP_WRITE);
+        } else {
+            connection.pending = null;
+            key.interestOps(SelectionKey.OP_READ);
+        }
+    }
+
+    private static void closeConnection(SelectionKey key) {
+        key.cancel();
+        try {
+            key.channel().close();
+        } catch (IOException e) {
+            // ignore
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        selector.wakeup();
+        try {
+            loop.join();
+            for (SelectionKey key : selector.keys()) {
+                key.channel().close();
+            }
+            selector.close();
+        } catch (IOException e) {
+            // ignore
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package loombench.harness.workload;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Fair semaphore with one permit per connection. A permit guarantees a free
+ * slot exists; the slot itself is claimed with a CAS on its in-use flag,
+ * starting the scan at a per-thread offset so claimers spread out.
+ */
+final class SemaphoreConnectionPool implements ConnectionPool {
+
+    private final Semaphore permits;
+    private final AtomicIntegerArray inUse;
+    private final long timeoutNanos;
+
+    SemaphoreConnectionPool(int size, long timeoutNanos) {
+        this.permits = new Semaphore(size, true);
+        this.inUse = new AtomicIntegerArray(size);
+        this.timeoutNanos = timeoutNanos;
+    }
+
+    @Override
+    public int acquire() throws InterruptedException, TimeoutException {
+        if (!permits.tryAcquire(timeoutNanos, TimeUnit.NANOSECONDS)) {
+            throw new TimeoutException("No connection within " + timeoutNanos / 1_000_000 + " ms");
+        }
+        int size = inUse.length();
+        int start = (int) (Thread.currentThread().threadId() % size);
+        while (true) {
+            for (int i = 0; i < size; i++) {
+                int slot = (start + i) % size;
+                if (inUse.get(slot) == 0 && inUse.compareAndSet(slot, 0, 1)) {
+                    return slot;
+                }
+            }
+            Thread.onSpinWait(); // a releaser has returned its permit but not yet cleared its flag
+        }
+    }
+
+    @Override
+    public void release(int connection) {
+        inUse.set(connection, 0);
+        permits.release();
+    }
+
+    @Override
+    public int size() {
+        return inUse.length();
+    }
+}
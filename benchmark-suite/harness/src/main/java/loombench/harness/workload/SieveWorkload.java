@@ -0,0 +1,36 @@
+package loombench.harness.workload;
+
+/**
+ * {@code sieve:limit=5000} - sieve of Eratosthenes below {@code limit},
+ * rebuilt by every task; returns the sum of the primes found.
+ */
+final class SieveWorkload implements Workload {
+
+    private final String name;
+    private final int limit;
+
+    SieveWorkload(WorkloadSpec spec) {
+        this.name = spec.toString();
+        this.limit = spec.intValue("limit", 5000);
+    }
+
+    @Override
+    public String name() {
+        return name;
+    }
+
+    @Override
+    public long run(int taskId) {
+        boolean[] composite = new boolean[limit];
+        long sum = 0;
+        for (int i = 2; i < limit; i++) {
+            if (!composite[i]) {
+                sum += i;
+                for (long j = (long) i * i; j < limit; j += i) {
+                    composite[(int) j] = true;
+                }
+            }
+        }
+        return sum;
+    }
+}
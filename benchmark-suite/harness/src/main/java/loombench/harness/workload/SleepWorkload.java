@@ -0,0 +1,34 @@
+package loombench.harness.workload;
+
+/**
+ * {@code sleep:millis=60/90} - one {@code Thread.sleep} per listed value, the
+ * stand-in for network and DB waits used by the original I/O suites.
+ */
+final class SleepWorkload implements Workload {
+
+    private final String name;
+    private final long[] millis;
+
+    SleepWorkload(WorkloadSpec spec) {
+        this.name = spec.toString();
+        this.millis = spec.longList("millis", 10);
+    }
+
+    @Override
+    public String name() {
+        return name;
+    }
+
+    @Override
+    public long run(int taskId) {
+        long start = System.nanoTime();
+        try {
+            for (long ms : millis) {
+                Thread.sleep(ms);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return System.nanoTime() - start;
+    }
+}
@@ -0,0 +1,217 @@
+package loombench.harness.workload;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousChannelGroup;
+import java.nio.channels.AsynchronousSocketChannel;
+import java.nio.channels.CompletionHandler;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * {@code socket:bytes=1024:roundTrips=1:client=blocking:server=threads:protocol=echo}
+ * - opens a connection to a local loopback server and does {@code roundTrips}
+ * request/response exchanges of {@code bytes} each. Unlike {@code sleep} this
+ * goes through the kernel: poller wakeups, selector churn and buffer copies.
+ *
+ * <p>{@code client} picks how the task talks to the socket:
+ * <ul>
+ *   <li>{@code blocking}: {@link Socket} streams on the task's own thread, so a
+ *       virtual thread parks in the JDK poller and a platform thread blocks in
+ *       the kernel;</li>
+ *   <li>{@code selector}: a non-blocking channel driven by one shared client
+ *       selector thread, the task waits on a future;</li>
+ *   <li>{@code async}: {@link AsynchronousSocketChannel} completion handlers on
+ *       a cores-sized channel group, the task waits on a future.</li>
+ * </ul>
+ * {@code server} is {@code threads} (virtual thread per connection) or
+ * {@code nio} (single selector thread), {@code protocol} is {@code echo} or
+ * {@code http} (see {@link LoopbackProtocol}). Connections are reset on close
+ * so 100k short connections do not exhaust ephemeral ports in TIME_WAIT.
+ */
+final class SocketWorkload implements Workload {
+
+    private final String name;
+    private final int bytes;
+    private final int roundTrips;
+    private final String client;
+    private final LoopbackProtocol protocol;
+    private final int responseLength;
+    private final LoopbackServer server;
+    private final InetSocketAddress address;
+    private final SelectorClientLoop selectorClient;
+    private final AsynchronousChannelGroup asyncGroup;
+
+    SocketWorkload(WorkloadSpec spec) {
+        this.name = spec.toString();
+        this.bytes = Math.max(1, spec.intValue("bytes", 1024));
+        this.roundTrips = spec.intValue("roundTrips", 1);
+        this.client = spec.string("client", "blocking");
+        this.protocol = LoopbackProtocol.parse(spec.string("protocol", "echo"));
+        this.responseLength = protocol.responseLength(bytes);
+        if (!client.equals("blocking") && !client.equals("selector") && !client.equals("async")) {
+            throw new IllegalArgumentException("Unknown socket client '" + client + "' (expected blocking, selector or async)");
+        }
+        this.server = LoopbackServer.start(spec.string("server", "threads"), protocol, spec.intValue("backlog", 4096));
+        this.address = server.address();
+        this.selectorClient = client.equals("selector") ? new SelectorClientLoop() : null;
+        this.asyncGroup = client.equals("async") ? openAsyncGroup() : null;
+    }
+
+    private static AsynchronousChannelGroup openAsyncGroup() {
+        try {
+            return AsynchronousChannelGroup.withFixedThreadPool(Runtime.getRuntime().availableProcessors(),
+                    Thread.ofPlatform().daemon().name("loopback-async-", 0).factory());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open asynchronous channel group", e);
+        }
+    }
+
+    @Override
+    public String name() {
+        return name;
+    }
+
+    @Override
+    public long run(int taskId) {
+        byte[] request = protocol.request(bytes, taskId);
+        return switch (client) {
+            case "selector" -> await(selectorClient.exchange(address, request, responseLength, roundTrips));
+            case "async" -> await(new AsyncExchange(request).start());
+            default -> runBlocking(request);
+        };
+    }
+
+    private long runBlocking(byte[] request) {
+        byte[] response = new byte[responseLength];
+        long received = 0;
+        try (Socket socket = new Socket()) {
+            socket.setSoLinger(true, 0);
+            socket.setTcpNoDelay(true);
+            socket.connect(address);
+            OutputStream out = socket.getOutputStream();
+            InputStream in = socket.getInputStream();
+            for (int trip = 0; trip < roundTrips; trip++) {
+                out.write(request);
+                out.flush();
+                received += in.readNBytes(response, 0, responseLength);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return received + response[0];
+    }
+
+    private static long await(CompletableFuture<Long> exchange) {
+        try {
+            return exchange.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return 0;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw new UncheckedIOException(io);
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /** {@code client=async}: connect → write → read chained through completion handlers. */
+    private final class AsyncExchange implements CompletionHandler<Integer, Void> {
+        private final ByteBuffer request;
+        private final ByteBuffer response = ByteBuffer.allocate(responseLength);
+        private final CompletableFuture<Long> done = new CompletableFuture<>();
+        private AsynchronousSocketChannel channel;
+        private int tripsLeft = roundTrips;
+        private long received;
+        private boolean reading;
+
+        AsyncExchange(byte[] request) {
+            this.request = ByteBuffer.wrap(request);
+        }
+
+        CompletableFuture<Long> start() {
+            try {
+                channel = AsynchronousSocketChannel.open(asyncGroup); // no SO_LINGER, the server resets instead
+                channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            } catch (IOException | RuntimeException e) {
+                failed(e, null);
+                return done;
+            }
+            channel.connect(address, null, new CompletionHandler<Void, Void>() {
+                @Override
+                public void completed(Void result, Void attachment) {
+                    channel.write(request, null, AsyncExchange.this);
+                }
+
+                @Override
+                public void failed(Throwable e, Void attachment) {
+                    AsyncExchange.this.failed(e, null);
+                }
+            });
+            return done;
+        }
+
+        @Override
+        public void completed(Integer n, Void attachment) {
+            if (!reading) {
+                if (request.hasRemaining()) {
+                    channel.write(request, null, this);
+                } else {
+                    reading = true;
+                    channel.read(response, null, this);
+                }
+                return;
+            }
+            if (n == -1) {
+                failed(new IOException("Server closed the connection after " + response.position() + " bytes"), null);
+            } else if (response.hasRemaining()) {
+                channel.read(response, null, this);
+            } else {
+                received += response.position();
+                if (--tripsLeft > 0) {
+                    reading = false;
+                    request.rewind();
+                    response.clear();
+                    channel.write(request, null, this);
+                } else {
+                    closeChannel();
+                    done.complete(received);
+                }
+            }
+        }
+
+        @Override
+        public void failed(Throwable e, Void attachment) {
+            closeChannel();
+            done.completeExceptionally(e);
+        }
+
+        private void closeChannel() {
+            if (channel != null) {
+                try {
+                    channel.close();
+                } catch (IOException e) {
+                    // ignore
+                }
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        if (selectorClient != null) {
+            selectorClient.close();
+        }
+        if (asyncGroup != null) {
+            asyncGroup.shutdown();
+        }
+        server.close();
+    }
+}
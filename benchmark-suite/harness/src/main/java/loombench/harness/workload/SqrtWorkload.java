@@ -0,0 +1,30 @@
+package loombench.harness.workload;
+
+/**
+ * {@code sqrt:iterations=10000000} - the {@code Math.sqrt} loop from the CPU
+ * resource-utilization suite.
+ */
+final class SqrtWorkload implements Workload {
+
+    private final String name;
+    private final int iterations;
+
+    SqrtWorkload(WorkloadSpec spec) {
+        this.name = spec.toString();
+        this.iterations = spec.intValue("iterations", 10_000_000);
+    }
+
+    @Override
+    public String name() {
+        return name;
+    }
+
+    @Override
+    public long run(int taskId) {
+        double dummy = 0;
+        for (int i = 0; i < iterations; i++) {
+            dummy += Math.sqrt(i);
+        }
+        return (long) dummy;
+    }
+}
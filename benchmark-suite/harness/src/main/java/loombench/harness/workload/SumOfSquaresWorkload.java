@@ -0,0 +1,85 @@
+package loombench.harness.workload;
+
+import java.util.function.IntToLongFunction;
+
+/**
+ * {@code sum-squares:iterations=10000000:method=scalar} - the {@code i * i}
+ * loop from ThreadComparisonCPU.cpuTask, accumulated in a long and returned.
+ * {@code method} picks the kernel, all with the same result:
+ * <ul>
+ *   <li>{@code scalar}: the original loop;</li>
+ *   <li>{@code unrolled}: four independent accumulators, so consecutive adds do
+ *       not wait on each other;</li>
+ *   <li>{@code vector}: {@link VectorSumOfSquares}, needs
+ *       {@code --add-modules jdk.incubator.vector}.</li>
+ * </ul>
+ */
+final class SumOfSquaresWorkload implements Workload {
+
+    private static final String VECTOR_KERNEL = "loombench.harness.workload.VectorSumOfSquares";
+
+    private final String name;
+    private final int iterations;
+    private final String method;
+    private final IntToLongFunction vector;
+
+    SumOfSquaresWorkload(WorkloadSpec spec) {
+        this.name = spec.toString();
+        this.iterations = spec.intValue("iterations", 10_000_000);
+        this.method = spec.string("method", "scalar");
+        if (!method.equals("scalar") && !method.equals("unrolled") && !method.equals("vector")) {
+            throw new IllegalArgumentException("Unknown sum-squares method '" + method + "' (expected scalar, unrolled or vector)");
+        }
+        this.vector = method.equals("vector") ? loadVectorKernel() : null;
+    }
+
+    private static IntToLongFunction loadVectorKernel() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+            throw new IllegalStateException("sum-squares:method=vector needs --add-modules jdk.incubator.vector");
+        }
+        try {
+            return (IntToLongFunction) Class.forName(VECTOR_KERNEL).getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Could not load " + VECTOR_KERNEL, e);
+        }
+    }
+
+    @Override
+    public String name() {
+        return name;
+    }
+
+    @Override
+    public long run(int taskId) {
+        return switch (method) {
+            case "unrolled" -> unrolled(iterations);
+            case "vector" -> vector.applyAsLong(iterations);
+            default -> scalar(iterations);
+        };
+    }
+
+    static long scalar(int iterations) {
+        long result = 0;
+        for (int i = 0; i < iterations; i++) {
+            result += (long) i * i;
+        }
+        return result;
+    }
+
+    static long unrolled(int iterations) {
+        long a = 0, b = 0, c = 0, d = 0;
+        int bound = iterations & ~3;
+        for (int i = 0; i < bound; i += 4) {
+            long x = i;
+            a += x * x;
+            b += (x + 1) * (x + 1);
+            c += (x + 2) * (x + 2);
+            d += (x + 3) * (x + 3);
+        }
+        long result = a + b + c + d;
+        for (int i = bound; i < iterations; i++) {
+            result += (long) i * i;
+        }
+        return result;
+    }
+}
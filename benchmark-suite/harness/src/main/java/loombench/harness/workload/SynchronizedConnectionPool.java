@@ -0,0 +1,48 @@
+package loombench.harness.workload;
+
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Free connections on an {@code int[]} stack guarded by the pool's monitor;
+ * waiters block in {@code wait()} until a release calls {@code notify()}.
+ * A virtual thread waiting here stays mounted on its carrier.
+ */
+final class SynchronizedConnectionPool implements ConnectionPool {
+
+    private final int[] free;
+    private final long timeoutNanos;
+    private int top;
+
+    SynchronizedConnectionPool(int size, long timeoutNanos) {
+        this.timeoutNanos = timeoutNanos;
+        this.free = new int[size];
+        for (int i = 0; i < size; i++) {
+            free[i] = i;
+        }
+        this.top = size;
+    }
+
+    @Override
+    public synchronized int acquire() throws InterruptedException, TimeoutException {
+        long deadline = System.nanoTime() + timeoutNanos;
+        while (top == 0) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                throw new TimeoutException("No connection within " + timeoutNanos / 1_000_000 + " ms");
+            }
+            wait(Math.max(1, remaining / 1_000_000));
+        }
+        return free[--top];
+    }
+
+    @Override
+    public synchronized void release(int connection) {
+        free[top++] = connection;
+        notify();
+    }
+
+    @Override
+    public int size() {
+        return free.length;
+    }
+}
@@ -0,0 +1,81 @@
+package loombench.harness.workload;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+
+/**
+ * {@code server=threads}: the accept loop runs on a platform daemon thread and
+ * each connection is served by its own virtual thread with blocking streams,
+ * so the server side scales with the client count.
+ */
+final class ThreadedLoopbackServer implements LoopbackServer {
+
+    private final LoopbackProtocol protocol;
+    private final ServerSocket serverSocket;
+    private final Thread acceptor;
+
+    ThreadedLoopbackServer(LoopbackProtocol protocol, int backlog) {
+        this.protocol = protocol;
+        try {
+            serverSocket = new ServerSocket();
+            serverSocket.setReuseAddress(true);
+            serverSocket.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), backlog);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not start loopback server", e);
+        }
+        acceptor = Thread.ofPlatform().daemon().name("loopback-acceptor").start(this::acceptLoop);
+    }
+
+    @Override
+    public InetSocketAddress address() {
+        return (InetSocketAddress) serverSocket.getLocalSocketAddress();
+    }
+
+    private void acceptLoop() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                socket.setSoLinger(true, 0);
+                Thread.startVirtualThread(() -> serve(socket));
+            } catch (IOException e) {
+                // closed
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        LoopbackProtocol.Responder responder = protocol.newResponder();
+        try (socket; InputStream in = socket.getInputStream(); OutputStream out = socket.getOutputStream()) {
+            byte[] buffer = new byte[8192];
+            int n;
+            while ((n = in.read(buffer)) != -1) {
+                ByteBuffer response = responder.onData(ByteBuffer.wrap(buffer, 0, n));
+                if (response != null) {
+                    out.write(response.array(), response.arrayOffset() + response.position(), response.remaining());
+                }
+            }
+        } catch (IOException e) {
+            // client went away
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            serverSocket.close();
+            acceptor.join();
+        } catch (IOException e) {
+            // ignore
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package loombench.harness.workload;
+
+import java.util.function.IntToLongFunction;
+
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * SIMD kernel behind {@code sum-squares:method=vector}: squares
+ * {@code species.length()} consecutive longs per step and adds them lane-wise,
+ * so the result matches the scalar loop exactly.
+ *
+ * <p>{@code jdk.incubator.vector} has to be added with
+ * {@code --add-modules jdk.incubator.vector}. {@link SumOfSquaresWorkload}
+ * loads this class by name so nothing else in the harness needs the module.
+ */
+final class VectorSumOfSquares implements IntToLongFunction {
+
+    private static final VectorSpecies<Long> SPECIES = LongVector.SPECIES_PREFERRED;
+
+    @Override
+    public long applyAsLong(int iterations) {
+        int lanes = SPECIES.length();
+        int bound = SPECIES.loopBound(iterations);
+        LongVector step = LongVector.broadcast(SPECIES, lanes);
+        LongVector values = LongVector.zero(SPECIES).addIndex(1);
+        LongVector sums = LongVector.zero(SPECIES);
+        for (int i = 0; i < bound; i += lanes) {
+            sums = sums.add(values.mul(values));
+            values = values.add(step);
+        }
+        long result = sums.reduceLanes(VectorOperators.ADD);
+        for (int i = bound; i < iterations; i++) {
+            result += (long) i * i;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,24 @@
+package loombench.harness.workload;
+
+/**
+ * One unit of benchmark work. A workload is created once per run, shared by
+ * every task of that run, and closed when the run is over.
+ *
+ * <p>{@link #run(int)} must be safe to call from many threads at once. It
+ * returns a value derived from the work it did so callers can sink it and the
+ * JIT cannot drop the work. Interrupts are swallowed the way the legacy
+ * {@code simulate*Task} methods did: the interrupt flag is restored and the
+ * task ends early.
+ */
+public interface Workload extends AutoCloseable {
+
+    /** Spec this workload was created from, e.g. {@code sleep:millis=60/90}. */
+    String name();
+
+    long run(int taskId);
+
+    /** Releases servers, files or pools opened by the workload. */
+    @Override
+    default void close() {
+    }
+}
@@ -0,0 +1,81 @@
+package loombench.harness.workload;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Parsed form of a workload spec: {@code name[:key=value[:key=value...]]}.
+ *
+ * <p>Colons are used instead of commas so a spec survives JMH's
+ * comma-separated {@code -p} lists and a shell without quoting.
+ */
+public final class WorkloadSpec {
+
+    private final String text;
+    private final String name;
+    private final Map<String, String> options;
+
+    private WorkloadSpec(String text, String name, Map<String, String> options) {
+        this.text = text;
+        this.name = name;
+        this.options = options;
+    }
+
+    public static WorkloadSpec parse(String text) {
+        String[] parts = text.trim().split(":");
+        if (parts[0].isEmpty()) {
+            throw new IllegalArgumentException("Workload spec has no name: '" + text + "'");
+        }
+        Map<String, String> options = new LinkedHashMap<>();
+        for (int i = 1; i < parts.length; i++) {
+            int eq = parts[i].indexOf('=');
+            if (eq <= 0) {
+                throw new IllegalArgumentException("Expected key=value in workload spec '" + text + "', got '" + parts[i] + "'");
+            }
+            options.put(parts[i].substring(0, eq), parts[i].substring(eq + 1));
+        }
+        return new WorkloadSpec(text.trim(), parts[0], Collections.unmodifiableMap(options));
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public Map<String, String> options() {
+        return options;
+    }
+
+    public String string(String key, String defaultValue) {
+        return options.getOrDefault(key, defaultValue);
+    }
+
+    public int intValue(String key, int defaultValue) {
+        String value = options.get(key);
+        return value == null ? defaultValue : Integer.parseInt(value.replace("_", ""));
+    }
+
+    public long longValue(String key, long defaultValue) {
+        String value = options.get(key);
+        return value == null ? defaultValue : Long.parseLong(value.replace("_", ""));
+    }
+
+    /** Slash-separated list, e.g. {@code millis=60/90}. */
+    public long[] longList(String key, long... defaultValue) {
+        String value = options.get(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        String[] items = value.split("/");
+        long[] result = new long[items.length];
+        for (int i = 0; i < items.length; i++) {
+            result[i] = Long.parseLong(items[i].replace("_", ""));
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return text;
+    }
+}
@@ -0,0 +1,124 @@
+package loombench.harness.workload;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Registry of named workload profiles.
+ *
+ * <p>A spec names one profile with optional options
+ * ({@code primes:limit=5000}); several specs joined with {@code +} run one
+ * after the other inside the same task
+ * ({@code sleep:millis=60/90+primes:limit=5000} is the mixed I/O + CPU task).
+ */
+public final class Workloads {
+
+    private static final Map<String, Function<WorkloadSpec, Workload>> REGISTRY = new LinkedHashMap<>();
+
+    static {
+        // Blocking / I/O
+        register("sleep", SleepWorkload::new);
+        register("socket", SocketWorkload::new);
+        register("file", FileReadWorkload::new);
+        register("db", DatabaseWorkload::new);
+
+        // CPU
+        register("sum-squares", SumOfSquaresWorkload::new);
+        register("sqrt", SqrtWorkload::new);
+        register("primes", PrimeWorkload::new);
+        register("sieve", SieveWorkload::new);
+        register("hash", HashWorkload::new);
+
+        // Memory / contention
+        register("alloc", AllocationWorkload::new);
+        register("lock", LockContendedWorkload::new);
+    }
+
+    private Workloads() {
+    }
+
+    /** Adds or replaces a profile. */
+    public static synchronized void register(String name, Function<WorkloadSpec, Workload> factory) {
+        REGISTRY.put(name, factory);
+    }
+
+    public static synchronized Set<String> names() {
+        return Collections.unmodifiableSet(new LinkedHashSet<>(REGISTRY.keySet()));
+    }
+
+    /** Creates the workload described by {@code spec}. */
+    public static Workload create(String spec) {
+        String[] stages = spec.split("\\+");
+        if (stages.length == 1) {
+            return createSingle(WorkloadSpec.parse(stages[0]));
+        }
+        List<Workload> parts = new ArrayList<>();
+        try {
+            for (String stage : stages) {
+                parts.add(createSingle(WorkloadSpec.parse(stage)));
+            }
+        } catch (RuntimeException e) {
+            parts.forEach(Workload::close);
+            throw e;
+        }
+        return new CompositeWorkload(spec.trim(), parts);
+    }
+
+    /**
+     * Creates the workload named by system property {@code property}, falling
+     * back to {@code defaultSpec}. This is how the standalone benchmark
+     * classes keep their original task while accepting {@code -Dworkload=...}.
+     */
+    public static Workload fromProperty(String property, String defaultSpec) {
+        return create(System.getProperty(property, defaultSpec));
+    }
+
+    private static Workload createSingle(WorkloadSpec spec) {
+        Function<WorkloadSpec, Workload> factory;
+        synchronized (Workloads.class) {
+            factory = REGISTRY.get(spec.name());
+        }
+        if (factory == null) {
+            throw new IllegalArgumentException("Unknown workload '" + spec.name() + "', expected one of " + names());
+        }
+        return factory.apply(spec);
+    }
+
+    /** Runs its parts in order; the result is the sum of their results. */
+    static final class CompositeWorkload implements Workload {
+        private final String name;
+        private final Workload[] parts;
+
+        CompositeWorkload(String name, List<Workload> parts) {
+            this.name = name;
+            this.parts = parts.toArray(new Workload[0]);
+        }
+
+        @Override
+        public String name() {
+            return name;
+        }
+
+        @Override
+        public long run(int taskId) {
+            long result = 0;
+            for (Workload part : parts) {
+                result += part.run(taskId);
+            }
+            return result;
+        }
+
+        @Override
+        public void close() {
+            for (Workload part : parts) {
+                part.close();
+            }
+        }
+    }
+}
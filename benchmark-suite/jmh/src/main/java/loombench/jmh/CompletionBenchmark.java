@@ -0,0 +1,150 @@
+package loombench.jmh;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Phaser;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import loombench.harness.CompletionCounter;
+
+/**
+ * What it costs the harness to notice that a batch of tasks finished. Every
+ * operation starts {@code tasks} near-empty tasks and waits for all of them,
+ * signalling completion through:
+ * <ul>
+ *   <li>{@code LATCH}: one {@code CountDownLatch};</li>
+ *   <li>{@code LATCH_COUNTER}: a latch plus an {@code AtomicInteger} of
+ *       completed tasks, what runBenchmark did before {@link CompletionCounter};</li>
+ *   <li>{@code PHASER}: a tree of {@code Phaser}s, {@value #PHASER_LEAF} parties
+ *       per leaf (a single phaser tops out at 65535);</li>
+ *   <li>{@code STRIPED}: {@link CompletionCounter}.</li>
+ * </ul>
+ * With {@code work=0} the difference between rows is coordination overhead,
+ * which is what used to leak into the trivial-task creation timings.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(value = 2, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class CompletionBenchmark {
+
+    public enum Signal { LATCH, LATCH_COUNTER, PHASER, STRIPED }
+
+    public enum Runner { PLATFORM, VIRTUAL }
+
+    static final int PHASER_LEAF = 4096;
+
+    @Param({"10000", "100000"})
+    public int tasks;
+
+    @Param({"LATCH", "LATCH_COUNTER", "PHASER", "STRIPED"})
+    public Signal signal;
+
+    @Param({"PLATFORM", "VIRTUAL"})
+    public Runner runner;
+
+    /** {@code Blackhole.consumeCPU} tokens per task; 0 leaves nothing but the signalling. */
+    @Param({"0", "100"})
+    public long work;
+
+    /** Platform pool size, 0 for availableProcessors. */
+    @Param({"0"})
+    public int poolSize;
+
+    private ExecutorService pool;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        pool = Executors.newFixedThreadPool(poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.shutdownNow();
+    }
+
+    @Benchmark
+    public int completeAll() throws InterruptedException {
+        long tokens = work;
+        switch (signal) {
+            case LATCH -> {
+                CountDownLatch latch = new CountDownLatch(tasks);
+                for (int i = 0; i < tasks; i++) {
+                    start(() -> {
+                        Blackhole.consumeCPU(tokens);
+                        latch.countDown();
+                    });
+                }
+                latch.await();
+                return tasks;
+            }
+            case LATCH_COUNTER -> {
+                CountDownLatch latch = new CountDownLatch(tasks);
+                AtomicInteger completed = new AtomicInteger();
+                for (int i = 0; i < tasks; i++) {
+                    start(() -> {
+                        Blackhole.consumeCPU(tokens);
+                        completed.incrementAndGet();
+                        latch.countDown();
+                    });
+                }
+                latch.await();
+                return completed.get();
+            }
+            case PHASER -> {
+                Phaser root = new Phaser(1);
+                for (int from = 0; from < tasks; from += PHASER_LEAF) {
+                    int parties = Math.min(PHASER_LEAF, tasks - from);
+                    Phaser leaf = new Phaser(root, parties);
+                    for (int i = 0; i < parties; i++) {
+                        start(() -> {
+                            Blackhole.consumeCPU(tokens);
+                            leaf.arrive();
+                        });
+                    }
+                }
+                root.arriveAndAwaitAdvance();
+                return tasks;
+            }
+            case STRIPED -> {
+                CompletionCounter done = new CompletionCounter(tasks);
+                for (int i = 0; i < tasks; i++) {
+                    start(() -> {
+                        Blackhole.consumeCPU(tokens);
+                        done.complete();
+                    });
+                }
+                done.await();
+                return done.completed();
+            }
+            default -> throw new IllegalStateException("Unknown signal " + signal);
+        }
+    }
+
+    private void start(Runnable task) {
+        if (runner == Runner.PLATFORM) {
+            pool.execute(task);
+        } else {
+            Thread.startVirtualThread(task);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package loombench.jmh;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import loombench.harness.ThreadModel;
+import loombench.harness.workload.Workload;
+import loombench.harness.workload.Workloads;
+
+/**
+ * JMH port of ThreadComparisonCPU: {@code tasks} CPU-bound tasks per
+ * operation (sum of squares by default), run through each thread model.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(value = 2, jvmArgsAppend = {"-Xms2g", "-Xmx2g", "--add-modules=jdk.incubator.vector"})
+public class CpuBenchmark {
+
+    @Param({"1000", "10000"})
+    public int tasks;
+
+    @Param({"PLATFORM", "VIRTUAL", "FORK_JOIN", "PARALLEL_STREAM", "HYBRID", "ADAPTIVE"})
+    public ThreadModel model;
+
+    /** Workload spec, see Workloads; the legacy suite used sum-squares:iterations=10000000. */
+    @Param({"sum-squares:iterations=100000"})
+    public String workload;
+
+    /** Platform pool size / ForkJoin parallelism; 0 means availableProcessors. */
+    @Param({"0"})
+    public int poolSize;
+
+    private ThreadModel.ModelExecutor executor;
+    private Workload task;
+    private long[] sink;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        executor = model.open(poolSize);
+        task = Workloads.create(workload);
+        sink = new long[tasks];
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        executor.close();
+        task.close();
+    }
+
+    @Benchmark
+    public void cpuTask(Blackhole bh) throws InterruptedException {
+        executor.runAll(tasks, taskId -> sink[taskId] = task.run(taskId));
+        bh.consume(sink);
+    }
+}
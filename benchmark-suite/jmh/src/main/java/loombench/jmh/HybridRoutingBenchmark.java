@@ -0,0 +1,121 @@
+package loombench.jmh;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import loombench.harness.CompletionCounter;
+import loombench.harness.HybridExecutor;
+import loombench.harness.workload.Workload;
+import loombench.harness.workload.Workloads;
+
+/**
+ * Static hybrid splits against {@link HybridExecutor} on a stream that
+ * interleaves I/O-only and CPU-only tasks, as MixedThreadBenchmark's Hybrid
+ * run does:
+ * <ul>
+ *   <li>{@code STATIC_HALF}: first half of the ids on the platform pool, the
+ *       rest on virtual threads, whatever they do (ThreadModel.HYBRID);</li>
+ *   <li>{@code STATIC_TYPE}: I/O tasks on virtual threads, CPU tasks on the
+ *       platform pool, decided by the caller (runHybridThreads);</li>
+ *   <li>{@code ADAPTIVE}: the executor learns the routing from CPU/wall time
+ *       during warm-up.</li>
+ * </ul>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 5, time = 20)
+@Fork(value = 2, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class HybridRoutingBenchmark {
+
+    public enum Router { STATIC_HALF, STATIC_TYPE, ADAPTIVE }
+
+    @Param({"1000", "10000"})
+    public int tasks;
+
+    @Param({"STATIC_HALF", "STATIC_TYPE", "ADAPTIVE"})
+    public Router router;
+
+    @Param({"sleep:millis=60/90"})
+    public String ioWorkload;
+
+    @Param({"primes:limit=5000"})
+    public String cpuWorkload;
+
+    /** Platform pool of the static splits, 100 as in runHybridThreads. */
+    @Param({"100"})
+    public int poolSize;
+
+    private ExecutorService pool;
+    private HybridExecutor hybrid;
+    private Workload ioTask;
+    private Workload cpuTask;
+    private long[] sink;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        pool = Executors.newFixedThreadPool(poolSize);
+        hybrid = new HybridExecutor();
+        ioTask = Workloads.create(ioWorkload);
+        cpuTask = Workloads.create(cpuWorkload);
+        sink = new long[tasks];
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.shutdownNow();
+        hybrid.close();
+        ioTask.close();
+        cpuTask.close();
+    }
+
+    @Benchmark
+    public void mixedTypes(Blackhole bh) throws InterruptedException {
+        CompletionCounter done = new CompletionCounter(tasks);
+        for (int i = 0; i < tasks; i++) {
+            final int taskId = i;
+            boolean io = (taskId & 1) == 0;
+            Workload workload = io ? ioTask : cpuTask;
+            Runnable task = () -> {
+                sink[taskId] = workload.run(taskId);
+                done.complete();
+            };
+            switch (router) {
+                case STATIC_HALF -> {
+                    if (taskId < tasks / 2) {
+                        pool.execute(task);
+                    } else {
+                        Thread.startVirtualThread(task);
+                    }
+                }
+                case STATIC_TYPE -> {
+                    if (io) {
+                        Thread.startVirtualThread(task);
+                    } else {
+                        pool.execute(task);
+                    }
+                }
+                case ADAPTIVE -> hybrid.execute(io ? "io" : "cpu", task);
+            }
+        }
+        done.await();
+        bh.consume(sink);
+    }
+}
@@ -0,0 +1,73 @@
+package loombench.jmh;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import loombench.harness.ThreadModel;
+import loombench.harness.workload.Workload;
+import loombench.harness.workload.Workloads;
+
+/**
+ * JMH port of IOThreadBenchmark: each operation submits {@code tasks}
+ * blocking tasks (sleep-based network + DB waits by default) and returns when
+ * all have finished.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 5, time = 20)
+@Fork(value = 2, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class IoBenchmark {
+
+    @Param({"1000", "10000"})
+    public int tasks;
+
+    @Param({"PLATFORM", "VIRTUAL", "BOUNDED_VIRTUAL", "FORK_JOIN", "HYBRID", "ADAPTIVE"})
+    public ThreadModel model;
+
+    /** Workload spec, see Workloads. */
+    @Param({"sleep:millis=60/90"})
+    public String workload;
+
+    /** Platform pool size / ForkJoin parallelism / Bounded Virtual permits, 200 as in runPlatformThreads. */
+    @Param({"200"})
+    public int poolSize;
+
+    private ThreadModel.ModelExecutor executor;
+    private Workload task;
+    private long[] sink;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        executor = model.open(poolSize);
+        task = Workloads.create(workload);
+        sink = new long[tasks];
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        executor.close();
+        task.close();
+    }
+
+    @Benchmark
+    public void ioTask(Blackhole bh) throws InterruptedException {
+        executor.runAll(tasks, taskId -> sink[taskId] = task.run(taskId));
+        bh.consume(sink);
+    }
+}
@@ -1,3 +1,5 @@
+import os
+import sys
 import pandas as pd
 import matplotlib.pyplot as plt
 
@@ -34,7 +36,14 @@ data = [
 ]
 
 # Create DataFrame
-df = pd.DataFrame(data, columns=["Thread Count", "Thread Model", "Total Memory (MB)", "CPU (%)", "Time (s)"])
+# Results written by ThreadComparisonWithJcmd (results_ThreadComparisonWithJcmd_CPU.csv); pass another results file as the first argument.
+# The published table above is used when no results file exists.
+RESULTS = sys.argv[1] if len(sys.argv) > 1 else os.path.join(
+    os.path.dirname(os.path.abspath(__file__)), "..", "code", "results_ThreadComparisonWithJcmd_CPU.csv")
+if os.path.exists(RESULTS):
+    df = pd.read_csv(RESULTS, comment="#")
+else:
+    df = pd.DataFrame(data, columns=["Thread Count", "Thread Model", "Total Memory (MB)", "CPU (%)", "Time (s)"])
 
 # --- Set up 3 subplots in one figure ---
 fig, axs = plt.subplots(3, 1, figsize=(12, 10), sharex=True)
@@ -1,11 +1,36 @@
+import java.util.Spliterator;
 import java.util.concurrent.*;
-import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+
+import loombench.harness.CompletionCounter;
+import loombench.harness.Config;
+import loombench.harness.HybridExecutor;
+import loombench.harness.TaskTimeline;
+import loombench.harness.results.ResultsFile;
+import loombench.harness.sampling.PinningMonitor;
+import loombench.harness.workload.Workload;
+import loombench.harness.workload.Workloads;
 
 public class ThreadComparisonCPU {
 
-    static final int[] TASK_COUNTS = {1000, 2000, 10000, 50000, 100000};
-    static AtomicLongArray taskLatencies;  // Array to store latency per task
-    static int loopPerTask = 10_000_000;   // Workload per task to make latency significant
+    // Override with -Dcounts=... / -Dpool=...
+    static final int[] TASK_COUNTS = Config.intList("counts", 1000, 2000, 10000, 50000, 100000);
+    static final int POOL_SIZE = Config.intValue("pool", Runtime.getRuntime().availableProcessors());
+    static TaskTimeline timeline;  // Enqueue / start / end stamp per task of the measured run
+    static final ResultsFile RESULTS = ResultsFile.forBenchmark("ThreadComparisonCPU");
+    static final PinningMonitor PINNING = PinningMonitor.fromProperty(); // -Dpinning
+    // Workload per task, large enough to make latency significant; override with -Dworkload=<spec>
+    static final Workload CPU_WORKLOAD = Workloads.fromProperty("workload", "sum-squares:iterations=10000000");
+    // Every task's result is stored here so the JIT cannot drop the kernel as dead code
+    static long sink;
+    // Routes tasks by measured CPU/wall time; learns during the warm-up runs
+    static final HybridExecutor ADAPTIVE = new HybridExecutor();
+    // ForkJoin leaf sizing, one row per entry: "adaptive" or a fixed threshold, e.g. -Dfj.split=adaptive,1,100,1000
+    static final String[] FJ_SPLITS = System.getProperty("fj.split", "adaptive").split(",");
+    // Leaf size of the custom Spliterator rows, one row per entry, e.g. -Dstream.chunk=1,16,256
+    static final int[] STREAM_CHUNKS = Config.intList("stream.chunk", 1);
 
     public static void main(String[] args) throws Exception {
         System.out.printf("%-35s %-10s %-15s %-15s %-22s %-15s%n",
@@ -18,11 +43,37 @@ public class ThreadComparisonCPU {
             // ========== Actual Measured Runs ==========
             benchmark("Platform Threads", count, () -> runWithPlatformThreads(count), () -> createPlatformThreads(count));
             benchmark("Virtual Threads", count, () -> runWithVirtualThreads(count), () -> createVirtualThreads(count));
-            benchmark("ForkJoin RecursiveTask", count, () -> runWithForkJoinRecursive(count), () -> createForkJoinTasks(count));
+            for (String split : FJ_SPLITS) {
+                int threshold = parseThreshold(split);
+                benchmark("ForkJoin RecursiveTask (" + split.trim() + ")", count,
+                        () -> runWithForkJoinRecursive(count, threshold), () -> createForkJoinTasks(count, threshold))
+                        .put("Split", split.trim());
+            }
+            benchmark("Parallel Stream (common pool)", count, () -> runWithParallelStream(count), () -> createParallelStreamTasks(count))
+                    .put("Pool", "common");
+            benchmark("Parallel Stream (custom pool)", count, () -> runWithParallelStreamInPool(count), () -> createParallelStreamTasks(count))
+                    .put("Pool", "custom");
+            for (int chunk : STREAM_CHUNKS) {
+                benchmark("Parallel Stream (spliterator " + chunk + ")", count,
+                        () -> runWithSpliteratorStream(count, chunk), () -> createParallelStreamTasks(count))
+                        .put("Pool", "custom")
+                        .put("Split", chunk);
+            }
             benchmark("Hybrid (50% Platform + 50% Virtual)", count, () -> runWithHybridThreads(count), () -> createHybridThreads(count));
+            benchmark("Adaptive (HybridExecutor)", count, () -> runWithAdaptiveThreads(count), () -> createAdaptiveThreads(count));
+            benchmark("Structured (nested scopes)", count, () -> runWithStructuredScopes(count), () -> createStructuredTasks(count));
 
             System.out.println();
         }
+
+        for (HybridExecutor.TypeStats stats : ADAPTIVE.stats()) {
+            System.out.println("🔀 " + stats);
+        }
+        ADAPTIVE.close();
+        PINNING.close();
+
+        RESULTS.write();
+        System.out.println("Results → " + RESULTS.csvPath() + ", " + RESULTS.jsonPath());
     }
 
     @FunctionalInterface
@@ -30,14 +81,18 @@ public class ThreadComparisonCPU {
         void run() throws Exception;
     }
 
-    static void benchmark(String label, int tasks, ThrowingRunnable test, ThrowingRunnable creationMeasure) throws Exception {
+    static ResultsFile.Row benchmark(String label, int tasks, ThrowingRunnable test, ThrowingRunnable creationMeasure) throws Exception {
+        PINNING.drain(); // drop warm-up and previous-model events
+
         // Thread Creation Time
         long creationStart = System.currentTimeMillis();
         creationMeasure.run();
         long creationEnd = System.currentTimeMillis();
         long creationTime = creationEnd - creationStart;
 
-        taskLatencies = new AtomicLongArray(tasks); // Reset latency array
+        timeline = new TaskTimeline(tasks); // Reset per-task stamps
+        // Batch models (ForkJoin, streams) have no per-task submission: their tasks count as enqueued now
+        timeline.enqueueAll();
 
         // Execution Time (High Precision)
         long start = System.nanoTime();
@@ -46,12 +101,9 @@ public class ThreadComparisonCPU {
         long executionTimeNs = end - start;
         double executionTimeMs = executionTimeNs / 1_000_000.0;
 
-        // Compute Average Latency (in microseconds)
-        long totalLatencyNs = 0;
-        for (int i = 0; i < tasks; i++) {
-            totalLatencyNs += taskLatencies.get(i);
-        }
-        double avgLatencyUs = totalLatencyNs / 1_000.0 / tasks;  // Convert ns to μs (microseconds)
+        // Average Latency is the time inside the task (in microseconds); queue wait is reported separately
+        TaskTimeline.Summary lifecycle = timeline.summarize(end);
+        double avgLatencyUs = lifecycle.service().mean() / 1_000.0;
 
         // Throughput (tasks per second)
         double throughput = (executionTimeNs == 0) ? 0 : ((double) tasks / (executionTimeNs / 1_000_000_000.0));
@@ -59,158 +111,370 @@ public class ThreadComparisonCPU {
         // Output
         System.out.printf("%-35s %-10d %-15.3f %-15.2f %-22d %-15.3f%n",
                 label, tasks, avgLatencyUs, throughput, creationTime, executionTimeMs);
+
+        ResultsFile.Row row = RESULTS.row()
+                .put("Thread Count", tasks)
+                .put("Model", label.split(" ")[0])
+                .put("Latency", avgLatencyUs)
+                .put("Throughput", throughput)
+                .put("Creation", creationTime)
+                .put("Execution Time", executionTimeMs);
+        System.out.println("⏱ " + lifecycle);
+        lifecycle.addTo(row);
+
+        PinningMonitor.Report pinning = PINNING.drain();
+        if (PINNING.enabled()) {
+            System.out.println("📌 Pinning → " + pinning);
+            pinning.addTo(row);
+        }
+        return row;
     }
 
     // ======================== CPU Task with Latency ============================
 
     static void cpuTask(int taskId) {
-        long submissionTime = System.nanoTime();
-
-        long result = 0;
-        for (int i = 0; i < loopPerTask; i++) {
-            result += i * i;
+        // Stamp only if a measured run is in progress and the index is valid
+        TaskTimeline stamps = timeline;
+        boolean measured = stamps != null && taskId < stamps.size();
+        if (measured) {
+            stamps.started(taskId);
         }
 
-        long completionTime = System.nanoTime();
+        sink = CPU_WORKLOAD.run(taskId);
+
+        if (measured) {
+            stamps.ended(taskId);
+        }
+    }
 
-        // Safe set if taskLatencies is initialized and index is valid
-        if (taskLatencies != null && taskId < taskLatencies.length()) {
-            taskLatencies.set(taskId, completionTime - submissionTime);
+    // Called by the submitting thread right before a task is handed to its executor
+    static void enqueued(int taskId) {
+        TaskTimeline stamps = timeline;
+        if (stamps != null && taskId < stamps.size()) {
+            stamps.enqueued(taskId);
         }
     }
 
     // ======================== CPU Load Functions ============================
 
     static void runWithPlatformThreads(int count) throws InterruptedException {
-        ExecutorService executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
-        CountDownLatch latch = new CountDownLatch(count);
+        ExecutorService executor = Executors.newFixedThreadPool(POOL_SIZE);
+        CompletionCounter done = new CompletionCounter(count);
         for (int i = 0; i < count; i++) {
             final int taskId = i;
+            enqueued(taskId);
             executor.execute(() -> {
                 cpuTask(taskId);
-                latch.countDown();
+                done.complete();
             });
         }
-        latch.await();
+        done.await();
         executor.shutdown();
     }
 
     static void runWithVirtualThreads(int count) throws InterruptedException {
-        CountDownLatch latch = new CountDownLatch(count);
+        CompletionCounter done = new CompletionCounter(count);
         for (int i = 0; i < count; i++) {
             final int taskId = i;
+            enqueued(taskId);
             Thread.startVirtualThread(() -> {
                 cpuTask(taskId);
-                latch.countDown();
+                done.complete();
             });
         }
-        latch.await();
+        done.await();
+    }
+
+    static void runWithForkJoinRecursive(int count, int threshold) {
+        try (ForkJoinPool pool = new ForkJoinPool(POOL_SIZE)) {
+            pool.invoke(new RecursiveCpuTask(0, count, threshold, minLeaf(count, pool.getParallelism())));
+        }
     }
 
-    static void runWithForkJoinRecursive(int count) {
-        ForkJoinPool pool = new ForkJoinPool();
-        pool.invoke(new RecursiveCpuTask(0, count));
+    // "adaptive" → 0, anything else is a fixed leaf size
+    static int parseThreshold(String split) {
+        return split.trim().equals("adaptive") ? 0 : Integer.parseInt(split.trim());
+    }
+
+    // Adaptive leaves never get smaller than 1/16th of a worker's fair share
+    static int minLeaf(int count, int parallelism) {
+        return Math.max(1, count / (parallelism * RecursiveCpuTask.LEAVES_PER_WORKER));
     }
 
     static class RecursiveCpuTask extends RecursiveAction {
         int start, end;
         static final int THRESHOLD = 1000;
+        // Adaptive splitting stops once this many forked tasks are waiting beyond what idle workers can steal
+        static final int SURPLUS_LIMIT = 3;
+        static final int LEAVES_PER_WORKER = 16;
+
+        final int threshold; // fixed leaf size, 0 = adaptive
+        final int minLeaf;
+        RecursiveCpuTask next; // adaptive: chain of forked right halves to join
 
         RecursiveCpuTask(int start, int end) {
+            this(start, end, THRESHOLD, 1);
+        }
+
+        RecursiveCpuTask(int start, int end, int threshold, int minLeaf) {
             this.start = start;
             this.end = end;
+            this.threshold = threshold;
+            this.minLeaf = minLeaf;
         }
 
         @Override
         protected void compute() {
-            int taskLimit = (taskLatencies != null) ? taskLatencies.length() : Integer.MAX_VALUE;
+            int taskLimit = (timeline != null) ? timeline.size() : Integer.MAX_VALUE;
             int safeEnd = Math.min(end, taskLimit);
 
-            if (safeEnd - start <= THRESHOLD) {
+            if (threshold <= 0) {
+                computeAdaptive(safeEnd);
+            } else if (safeEnd - start <= threshold) {
                 for (int i = start; i < safeEnd; i++) {
                     cpuTask(i);
                 }
             } else {
                 int mid = (start + safeEnd) / 2;
-                invokeAll(new RecursiveCpuTask(start, mid), new RecursiveCpuTask(mid, safeEnd));
+                invokeAll(new RecursiveCpuTask(start, mid, threshold, minLeaf), new RecursiveCpuTask(mid, safeEnd, threshold, minLeaf));
+            }
+        }
+
+        // Fork right halves only while the pool is short of stealable work, then run the rest here.
+        // Leaves end up large when every worker is busy and small when workers are idle, at any task count.
+        private void computeAdaptive(int safeEnd) {
+            int hi = safeEnd;
+            RecursiveCpuTask forked = null;
+            while (hi - start > minLeaf && getSurplusQueuedTaskCount() <= SURPLUS_LIMIT) {
+                int mid = (start + hi) >>> 1;
+                RecursiveCpuTask right = new RecursiveCpuTask(mid, hi, 0, minLeaf);
+                right.next = forked;
+                forked = right;
+                right.fork();
+                hi = mid;
+            }
+            for (int i = start; i < hi; i++) {
+                cpuTask(i);
             }
+            for (; forked != null; forked = forked.next) {
+                if (forked.tryUnfork()) {
+                    forked.compute(); // nobody stole it
+                } else {
+                    forked.join();
+                }
+            }
+        }
+    }
+
+    // IntStream.range(...).parallel() as most code writes it: runs on the common pool plus the calling thread
+    static void runWithParallelStream(int count) {
+        IntStream.range(0, count).parallel().forEach(ThreadComparisonCPU::cpuTask);
+    }
+
+    // Same stream submitted to a POOL_SIZE ForkJoinPool: a terminal operation runs in the pool it was started from
+    static void runWithParallelStreamInPool(int count) {
+        try (ForkJoinPool pool = new ForkJoinPool(POOL_SIZE)) {
+            pool.submit(() -> IntStream.range(0, count).parallel().forEach(ThreadComparisonCPU::cpuTask)).join();
+        }
+    }
+
+    // Custom Spliterator: splits down to `chunk` tasks instead of the stream framework's size / (4 × parallelism)
+    static void runWithSpliteratorStream(int count, int chunk) {
+        try (ForkJoinPool pool = new ForkJoinPool(POOL_SIZE)) {
+            pool.submit(() -> StreamSupport.intStream(new RangeSpliterator(0, count, chunk), true)
+                    .forEach(ThreadComparisonCPU::cpuTask)).join();
+        }
+    }
+
+    static class RangeSpliterator implements Spliterator.OfInt {
+        int start;
+        final int end, chunk;
+
+        RangeSpliterator(int start, int end, int chunk) {
+            this.start = start;
+            this.end = end;
+            this.chunk = Math.max(1, chunk);
+        }
+
+        @Override
+        public OfInt trySplit() {
+            int size = end - start;
+            if (size <= chunk) {
+                return null;
+            }
+            // Split on a chunk boundary so every leaf is a whole number of chunks
+            int mid = start + Math.max(chunk, (size / 2) / chunk * chunk);
+            RangeSpliterator prefix = new RangeSpliterator(start, mid, chunk);
+            start = mid;
+            return prefix;
+        }
+
+        @Override
+        public boolean tryAdvance(IntConsumer action) {
+            if (start >= end) {
+                return false;
+            }
+            action.accept(start++);
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(IntConsumer action) {
+            for (int i = start; i < end; i++) {
+                action.accept(i);
+            }
+            start = end;
+        }
+
+        @Override
+        public long estimateSize() {
+            return end - start;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | SIZED | SUBSIZED | IMMUTABLE | NONNULL | DISTINCT;
         }
     }
 
     static void runWithHybridThreads(int count) throws InterruptedException {
         int half = count / 2;
-        CountDownLatch latch = new CountDownLatch(count);
-        ExecutorService platformPool = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        CompletionCounter done = new CompletionCounter(count);
+        ExecutorService platformPool = Executors.newFixedThreadPool(POOL_SIZE);
 
         for (int i = 0; i < half; i++) {
             final int taskId = i;
+            enqueued(taskId);
             platformPool.execute(() -> {
                 cpuTask(taskId);
-                latch.countDown();
+                done.complete();
             });
         }
 
         for (int i = half; i < count; i++) {
             final int taskId = i;
+            enqueued(taskId);
             Thread.startVirtualThread(() -> {
                 cpuTask(taskId);
-                latch.countDown();
+                done.complete();
             });
         }
 
-        latch.await();
+        done.await();
         platformPool.shutdown();
     }
 
+    static void runWithAdaptiveThreads(int count) throws InterruptedException {
+        CompletionCounter done = new CompletionCounter(count);
+        for (int i = 0; i < count; i++) {
+            final int taskId = i;
+            enqueued(taskId);
+            ADAPTIVE.execute("cpu", () -> {
+                cpuTask(taskId);
+                done.complete();
+            });
+        }
+        done.await();
+    }
+
+    // Fan-out/fan-in: a ShutdownOnFailure scope for the run forks one nested scope per batch of THRESHOLD tasks
+    static void runWithStructuredScopes(int count) throws Exception {
+        try (var run = new StructuredTaskScope.ShutdownOnFailure()) {
+            for (int batchStart = 0; batchStart < count; batchStart += RecursiveCpuTask.THRESHOLD) {
+                final int from = batchStart;
+                final int to = Math.min(count, batchStart + RecursiveCpuTask.THRESHOLD);
+                run.fork(() -> {
+                    try (var batch = new StructuredTaskScope.ShutdownOnFailure()) {
+                        for (int i = from; i < to; i++) {
+                            final int taskId = i;
+                            enqueued(taskId);
+                            batch.fork(() -> {
+                                cpuTask(taskId);
+                                return null;
+                            });
+                        }
+                        batch.join().throwIfFailed();
+                    }
+                    return null;
+                });
+            }
+            run.join().throwIfFailed();
+        }
+    }
+
     // ======================== Thread Creation Timing ============================
 
     static void createPlatformThreads(int count) {
-        ExecutorService executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
-        CountDownLatch latch = new CountDownLatch(count);
+        ExecutorService executor = Executors.newFixedThreadPool(POOL_SIZE);
+        CompletionCounter done = new CompletionCounter(count);
         for (int i = 0; i < count; i++) {
-            executor.execute(() -> latch.countDown());
+            executor.execute(() -> done.complete());
         }
         try {
-            latch.await();
+            done.await();
         } catch (InterruptedException ignored) {}
         executor.shutdown();
     }
 
     static void createVirtualThreads(int count) {
-        CountDownLatch latch = new CountDownLatch(count);
+        CompletionCounter done = new CompletionCounter(count);
         for (int i = 0; i < count; i++) {
-            Thread.startVirtualThread(() -> latch.countDown());
+            Thread.startVirtualThread(() -> done.complete());
         }
         try {
-            latch.await();
+            done.await();
         } catch (InterruptedException ignored) {}
     }
 
-    static void createForkJoinTasks(int count) {
-        ForkJoinPool.commonPool().invoke(new RecursiveCpuTask(0, count));
+    static void createForkJoinTasks(int count, int threshold) {
+        ForkJoinPool.commonPool().invoke(new RecursiveCpuTask(0, count, threshold, minLeaf(count, ForkJoinPool.getCommonPoolParallelism())));
+    }
+
+    static void createParallelStreamTasks(int count) {
+        IntStream.range(0, count).parallel().forEach(i -> {});
     }
 
     static void createHybridThreads(int count) {
         int half = count / 2;
-        CountDownLatch latch = new CountDownLatch(count);
-        ExecutorService executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        CompletionCounter done = new CompletionCounter(count);
+        ExecutorService executor = Executors.newFixedThreadPool(POOL_SIZE);
 
         for (int i = 0; i < half; i++) {
-            executor.execute(() -> latch.countDown());
+            executor.execute(() -> done.complete());
         }
         for (int i = half; i < count; i++) {
-            Thread.startVirtualThread(() -> latch.countDown());
+            Thread.startVirtualThread(() -> done.complete());
         }
         try {
-            latch.await();
+            done.await();
         } catch (InterruptedException ignored) {}
         executor.shutdown();
     }
 
+    static void createAdaptiveThreads(int count) {
+        CompletionCounter done = new CompletionCounter(count);
+        for (int i = 0; i < count; i++) {
+            ADAPTIVE.execute("noop", done::complete);
+        }
+        try {
+            done.await();
+        } catch (InterruptedException ignored) {}
+    }
+
+    static void createStructuredTasks(int count) {
+        try (var scope = new StructuredTaskScope<Void>()) {
+            for (int i = 0; i < count; i++) {
+                scope.fork(() -> null);
+            }
+            scope.join();
+        } catch (InterruptedException ignored) {}
+    }
+
     // ======================== Warm-up Run for Stabilization ============================
 
     static void warmUpRun(int count) throws Exception {
-        // No latency measurement in warm-up → taskLatencies remains null
+        // No latency measurement in warm-up → no stamps
+        timeline = null;
 
         createPlatformThreads(count);
         runWithPlatformThreads(count);
@@ -218,10 +482,25 @@ public class ThreadComparisonCPU {
         createVirtualThreads(count);
         runWithVirtualThreads(count);
 
-        createForkJoinTasks(count);
-        runWithForkJoinRecursive(count);
+        for (String split : FJ_SPLITS) {
+            createForkJoinTasks(count, parseThreshold(split));
+            runWithForkJoinRecursive(count, parseThreshold(split));
+        }
+
+        createParallelStreamTasks(count);
+        runWithParallelStream(count);
+        runWithParallelStreamInPool(count);
+        for (int chunk : STREAM_CHUNKS) {
+            runWithSpliteratorStream(count, chunk);
+        }
 
         createHybridThreads(count);
         runWithHybridThreads(count);
+
+        createAdaptiveThreads(count);
+        runWithAdaptiveThreads(count);
+
+        createStructuredTasks(count);
+        runWithStructuredScopes(count);
     }
 }
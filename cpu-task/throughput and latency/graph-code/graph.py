@@ -1,3 +1,5 @@
+import os
+import sys
 import matplotlib.pyplot as plt
 import seaborn as sns
 import pandas as pd
@@ -26,14 +28,43 @@ data = [
     {"Thread Count": 100000, "Model": "Hybrid", "Latency": 0.032, "Throughput": 3335757.32, "Creation": 23}
 ]
 
-df = pd.DataFrame(data)
+# Results written by ThreadComparisonCPU (results_ThreadComparisonCPU.csv); pass another results file as the first argument.
+# The published table above is used when no results file exists.
+RESULTS = sys.argv[1] if len(sys.argv) > 1 else os.path.join(
+    os.path.dirname(os.path.abspath(__file__)), "..", "code", "results_ThreadComparisonCPU.csv")
+if os.path.exists(RESULTS):
+    df = pd.read_csv(RESULTS, comment="#")
+else:
+    df = pd.DataFrame(data)
+
+# Rows of one Model that differ by Pool or Split (parallel streams, ForkJoin leaf sizes) get their own bars
+variants = [c for c in ("Pool", "Split") if c in df.columns]
+if variants:
+    def series(row):
+        parts = [str(row[c]).removesuffix(".0") for c in variants if pd.notna(row[c])]
+        return row["Model"] + (" (" + ", ".join(parts) + ")" if parts else "")
+    df["Model"] = df.apply(series, axis=1)
 
 palette = {
     'Platform': '#1f77b4',
     'Virtual': '#ff7f0e',
     'ForkJoin': '#2ca02c',
-    'Hybrid': '#d62728'
+    'Hybrid': '#d62728',
+    'Adaptive': '#9467bd',
+    'Structured': '#8c564b',
+    'Parallel': '#e377c2'
 }
+# Models without a fixed colour (e.g. from a newer results file) get one from a generated palette
+models = list(dict.fromkeys(df["Model"]))
+extra = [m for m in models if m not in palette]
+palette.update(zip(extra, sns.color_palette("husl", len(extra)).as_hex()))
+palette = {m: palette[m] for m in models}
+
+
+def label_bars(ax, fmt):
+    for container in ax.containers:
+        ax.bar_label(container, fmt=fmt, fontsize=8)
+
 
 # Plotting
 fig, axs = plt.subplots(2, 2, figsize=(16, 10))
@@ -45,8 +76,7 @@ axs[0, 0].set_title("Execution Time (Latency - ms, Log Scale)")
 axs[0, 0].set_yscale("log")
 axs[0, 0].set_ylabel("Latency (ms)")
 axs[0, 0].set_xlabel("Thread Count")
-axs[0, 0].bar_label(axs[0, 0].containers[0], fmt="%.3f", fontsize=8)
-axs[0, 0].bar_label(axs[0, 0].containers[1], fmt="%.3f", fontsize=8)
+label_bars(axs[0, 0], "%.3f")
 
 # Throughput - Log Scale
 sns.barplot(data=df, x="Thread Count", y="Throughput", hue="Model", palette=palette, ax=axs[0, 1])
@@ -54,16 +84,14 @@ axs[0, 1].set_title("Throughput (ops/sec, Log Scale)")
 axs[0, 1].set_yscale("log")
 axs[0, 1].set_ylabel("Ops/sec")
 axs[0, 1].set_xlabel("Thread Count")
-axs[0, 1].bar_label(axs[0, 1].containers[0], fmt="%.0f", fontsize=8)
-axs[0, 1].bar_label(axs[0, 1].containers[1], fmt="%.0f", fontsize=8)
+label_bars(axs[0, 1], "%.0f")
 
 # Thread Creation Time
 sns.barplot(data=df, x="Thread Count", y="Creation", hue="Model", palette=palette, ax=axs[1, 0])
 axs[1, 0].set_title("Thread Creation Time (ms)")
 axs[1, 0].set_ylabel("Creation Time (ms)")
 axs[1, 0].set_xlabel("Thread Count")
-axs[1, 0].bar_label(axs[1, 0].containers[0], fmt="%.0f", fontsize=8)
-axs[1, 0].bar_label(axs[1, 0].containers[1], fmt="%.0f", fontsize=8)
+label_bars(axs[1, 0], "%.0f")
 
 # Latency per Model by Thread Count (Log Scale)
 sns.barplot(data=df, x="Model", y="Latency", hue="Thread Count", palette="Set2", ax=axs[1, 1])
@@ -71,14 +99,14 @@ axs[1, 1].set_title("Latency per Model (by Thread Count, Log Scale)")
 axs[1, 1].set_yscale("log")
 axs[1, 1].set_ylabel("Latency (ms)")
 axs[1, 1].set_xlabel("Model")
-axs[1, 1].bar_label(axs[1, 1].containers[0], fmt="%.3f", fontsize=8)
+label_bars(axs[1, 1], "%.3f")
 
 # Legends
 for ax in axs.flat:
     ax.legend_.remove()
 
 handles, labels = axs[0, 0].get_legend_handles_labels()
-fig.legend(handles, labels, loc='upper center', bbox_to_anchor=(0.5, 0.02), ncol=4, fontsize=10)
+fig.legend(handles, labels, loc='upper center', bbox_to_anchor=(0.5, 0.02), ncol=min(len(palette), 7), fontsize=10)
 
 plt.tight_layout(rect=[0, 0.05, 1, 0.95])
 plt.show()
@@ -1,23 +1,42 @@
-import java.io.*;
-import java.lang.management.*;
+import java.nio.file.Path;
 import java.util.*;
 import java.util.concurrent.*;
 
+import loombench.harness.CompletionCounter;
+import loombench.harness.Config;
+import loombench.harness.results.ResultsFile;
+import loombench.harness.sampling.NativeMemorySampler;
+import loombench.harness.sampling.PinningMonitor;
+import loombench.harness.sampling.ProcessCpuSampler;
+import loombench.harness.sampling.ResourceSampler;
+import loombench.harness.workload.Workload;
+import loombench.harness.workload.Workloads;
+
 public class ThreadComparisonWithJcmd {
 
+    // Simulated I/O by default; override with -Dworkload=<spec>
+    static final Workload TASK = Workloads.fromProperty("workload", "sleep:millis=10");
+    static final ResultsFile RESULTS = ResultsFile.forBenchmark("ThreadComparisonWithJcmd_IO");
+    static final int SAMPLE_INTERVAL_MS = Config.intValue("memory.interval", 50);
+    static final int CPU_INTERVAL_MS = Config.intValue("cpu.interval", 100);
+    static final int RESOURCE_INTERVAL_MS = Config.intValue("resource.interval", 10);
+    static final PinningMonitor PINNING = PinningMonitor.fromProperty(); // -Dpinning
+
     public static void main(String[] args) throws Exception {
-        int[] threadCounts = {1000, 5000, 10000, 50000, 75000, 100000};
-        long pid = ProcessHandle.current().pid();
+        int[] threadCounts = Config.intList("counts", 1000, 5000, 10000, 50000, 75000, 100000); // -Dcounts=...
 
         System.out.printf("| %-7s | %-12s | %-13s | %-16s | %-13s | %-7s | %-8s |\n",
-                "Threads", "Thread Model", "Live Threads", "Used Memory (MB)", "Memory/Thread", "CPU (%)", "Time (s)");
+                "Threads", "Thread Model", "Peak Threads", "Heap Growth (MB)", "Memory/Thread", "CPU (%)", "Time (s)");
         System.out.println("|---------|--------------|--------------|------------------|---------------|---------|----------|");
 
         for (int count : threadCounts) {
-            runTestGroup(count, pid);
+            runTestGroup(count);
         }
 
         System.out.println("All tests done.");
+        PINNING.close();
+        RESULTS.write();
+        System.out.println("Results → " + RESULTS.csvPath() + ", " + RESULTS.jsonPath());
 
         // 🔽 Add system configuration info here
     System.out.println("\n=== System Configuration ===");
@@ -26,36 +45,67 @@ public class ThreadComparisonWithJcmd {
     System.out.println("Available Cores  : " + Runtime.getRuntime().availableProcessors());
     }
 
-    private static void runTestGroup(int threadCount, long pid) throws Exception {
-        runTest(threadCount, "Platform", () -> runPlatformThreads(threadCount), pid);
-        runTest(threadCount, "Virtual", () -> runVirtualThreads(threadCount), pid);
-        runTest(threadCount, "Hybrid", () -> runHybridThreads(threadCount), pid);
+    private static void runTestGroup(int threadCount) throws Exception {
+        runTest(threadCount, "Platform", () -> runPlatformThreads(threadCount));
+        runTest(threadCount, "Virtual", () -> runVirtualThreads(threadCount));
+        runTest(threadCount, "Hybrid", () -> runHybridThreads(threadCount));
     }
 
-    private static void runTest(int threadCount, String model, ThrowingRunnable testMethod, long pid) throws Exception {
-        System.gc();
-        Thread.sleep(200); // Let GC settle
+    private static void runTest(int threadCount, String model, ThrowingRunnable testMethod) throws Exception {
+        System.gc(); // baseline without the previous model's garbage; returns once the collection is done
 
-        long beforeMem = getUsedMemory();
-        long beforeCpuTime = getCpuTime();
+        PINNING.drain(); // drop events from GC settling and the previous model
+        ProcessCpuSampler cpuSampler = ProcessCpuSampler.start(CPU_INTERVAL_MS);
+        NativeMemorySampler sampler = NativeMemorySampler.start(SAMPLE_INTERVAL_MS);
+        ResourceSampler resourceSampler = ResourceSampler.start(RESOURCE_INTERVAL_MS);
         long start = System.nanoTime();
 
         testMethod.run();
 
         long end = System.nanoTime();
-        long afterCpuTime = getCpuTime();
-        long afterMem = getUsedMemory();
+        ResourceSampler.Summary resources = resourceSampler.stop();
+        NativeMemorySampler.Summary memory = sampler.stop();
+        ProcessCpuSampler.Summary cpu = cpuSampler.stop();
+        PinningMonitor.Report pinning = PINNING.drain();
 
-        double usedMemoryMB = (afterMem - beforeMem) / (1024.0 * 1024);
+        double usedMemoryMB = resources.heapGrowthKB() / 1024.0;
         double timeSec = (end - start) / 1_000_000_000.0;
-        double cpuUsage = (afterCpuTime - beforeCpuTime) / 1_000_000.0 / (timeSec * 1000);
-        int liveThreads = Thread.activeCount();
+        double cpuUsage = cpu.averagePercent() / 100;
+        int liveThreads = resources.peakThreads();
         double memoryPerThread = usedMemoryMB / threadCount;
 
         System.out.printf("| %-7d | %-12s | %-13d | %16.2f | %13.4f | %7.2f | %8.2f |\n",
                 threadCount, model, liveThreads, usedMemoryMB, memoryPerThread, cpuUsage * 100, timeSec);
 
-        printNativeMemorySummary(pid, model, threadCount);
+        NativeMemorySampler.Sample peak = memory.peak();
+        ResultsFile.Row row = RESULTS.row()
+                .put("Thread Count", threadCount)
+                .put("Thread Model", model)
+                .put("Total Memory (MB)", usedMemoryMB)
+                .put("Memory/Thread", memoryPerThread)
+                .put("CPU (%)", cpuUsage * 100)
+                .put("CPU Peak (%)", cpu.peakPercent())
+                .put("CPU User (%)", cpu.userPercent())
+                .put("CPU Sys (%)", cpu.systemPercent())
+                .put("Time (s)", timeSec)
+                .put("Peak RSS (MB)", peak.rssKB() / 1024.0)
+                .put("Peak Thread Stacks (MB)", peak.stackCommittedKB() / 1024.0)
+                .put("Peak Heap Committed (MB)", peak.heapCommittedKB() / 1024.0)
+                .put("Peak Metaspace (MB)", peak.metaspaceCommittedKB() / 1024.0)
+                .put("Stack/Thread (KB)", memory.stackPerThreadKB(threadCount))
+                .put("RSS/Thread (KB)", memory.rssPerThreadKB(threadCount));
+        resources.addTo(row);
+        if (PINNING.enabled()) {
+            pinning.addTo(row);
+        }
+
+        if (PINNING.enabled()) {
+            System.out.println("📌 Pinning → " + pinning);
+        }
+        System.out.printf("⚙ CPU → avg: %.2f%% | peak: %.2f%% | user: %.2f%% | sys: %.2f%%%n",
+                cpu.averagePercent(), cpu.peakPercent(), cpu.userPercent(), cpu.systemPercent());
+        printNativeMemorySummary(memory, model, threadCount);
+        printResourceSummary(resources, model, threadCount);
     }
 
     @FunctionalInterface
@@ -64,29 +114,29 @@ public class ThreadComparisonWithJcmd {
     }
 
     private static void runPlatformThreads(int threadCount) throws InterruptedException {
-        CountDownLatch latch = new CountDownLatch(threadCount);
+        CompletionCounter done = new CompletionCounter(threadCount);
         for (int i = 0; i < threadCount; i++) {
             new Thread(() -> {
                 simulateTask();
-                latch.countDown();
+                done.complete();
             }).start();
         }
-        latch.await();
+        done.await();
     }
 
     private static void runVirtualThreads(int threadCount) throws InterruptedException {
-        CountDownLatch latch = new CountDownLatch(threadCount);
+        CompletionCounter done = new CompletionCounter(threadCount);
         for (int i = 0; i < threadCount; i++) {
             Thread.startVirtualThread(() -> {
                 simulateTask();
-                latch.countDown();
+                done.complete();
             });
         }
-        latch.await();
+        done.await();
     }
 
     private static void runHybridThreads(int threadCount) throws Exception {
-        ExecutorService pool = Executors.newFixedThreadPool(100);
+        ExecutorService pool = Executors.newFixedThreadPool(Config.intValue("hybrid.pool", 100));
         List<Future<?>> futures = new ArrayList<>();
         for (int i = 0; i < threadCount; i++) {
             futures.add(pool.submit(ThreadComparisonWithJcmd::simulateTask));
@@ -96,52 +146,30 @@ public class ThreadComparisonWithJcmd {
     }
 
     private static void simulateTask() {
-        try {
-            Thread.sleep(10); // Simulate I/O
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-        }
+        TASK.run(0);
     }
 
-    private static long getUsedMemory() {
-        return Runtime.getRuntime().totalMemory() - Runtime.getRuntime().freeMemory();
+    private static void printNativeMemorySummary(NativeMemorySampler.Summary memory, String model, int threadCount) {
+        NativeMemorySampler.Sample peak = memory.peak();
+        System.out.printf("🧠 Memory → Peak RSS: %.2f MB | Peak Thread Stacks: %.2f MB (%d NMT threads) | Heap: %.2f MB | Metaspace: %.2f MB | Stack/Thread: %.2f KB | RSS/Thread: %.2f KB%n",
+                peak.rssKB() / 1024.0, peak.stackCommittedKB() / 1024.0, peak.nmtThreads(),
+                peak.heapCommittedKB() / 1024.0, peak.metaspaceCommittedKB() / 1024.0,
+                memory.stackPerThreadKB(threadCount), memory.rssPerThreadKB(threadCount));
+
+        String filename = "memory_timeline_" + model + "_" + threadCount + ".csv";
+        Path timeline = RESULTS.csvPath().resolveSibling(filename);
+        memory.writeTimeline(timeline);
+        System.out.println("📂 Memory timeline → " + timeline);
     }
 
-    private static long getCpuTime() {
-        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
-        return Arrays.stream(bean.getAllThreadIds())
-                .map(bean::getThreadCpuTime)
-                .filter(t -> t != -1)
-                .reduce(0L, Long::sum);
-    }
+    private static void printResourceSummary(ResourceSampler.Summary resources, String model, int threadCount) {
+        System.out.printf("📊 Resources → %s | Heap/Thread (from peak): %.2f KB%n",
+                resources, resources.heapPerThreadKB(threadCount));
 
-    private static void printNativeMemorySummary(long pid, String model, int threadCount) {
-        try {
-            ProcessBuilder pb = new ProcessBuilder("jcmd", String.valueOf(pid), "VM.native_memory", "summary");
-            Process process = pb.start();
-
-            Scanner scanner = new Scanner(process.getInputStream());
-            String filename = "nmt_output_" + model + "_" + threadCount + ".txt";
-            BufferedWriter bw = new BufferedWriter(new FileWriter(filename));
-
-            System.out.println("===== NMT Report for " + model + " with " + threadCount + " threads =====");
-            bw.write("===== NMT Report for " + model + " with " + threadCount + " threads =====\n");
-
-            while (scanner.hasNextLine()) {
-                String line = scanner.nextLine();
-                if (line.contains("Thread")) {
-                    System.out.println(line);
-                    bw.write(line + "\n");
-                }
-            }
-
-            bw.close();
-            scanner.close();
-            process.waitFor();
-        } catch (Exception e) {
-            System.err.println("NMT command failed: " + e.getMessage());
-        }
+        Path timeline = RESULTS.csvPath().resolveSibling("resource_timeline_" + model + "_" + threadCount + ".csv");
+        Path pauses = RESULTS.csvPath().resolveSibling("gc_pauses_" + model + "_" + threadCount + ".csv");
+        resources.writeTimeline(timeline);
+        resources.writePauses(pauses);
+        System.out.println("📂 Resource timeline → " + timeline + ", GC pauses → " + pauses);
     }
 }
-
-
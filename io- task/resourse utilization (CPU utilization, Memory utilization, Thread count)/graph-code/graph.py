@@ -1,3 +1,5 @@
+import os
+import sys
 import matplotlib.pyplot as plt
 import seaborn as sns
 import pandas as pd
@@ -14,7 +16,14 @@ data = {
     'Time (s)': [0.11, 0.04, 0.19, 0.53, 0.07, 0.80, 1.08, 0.07, 1.59, 4.66, 0.21, 7.87, 6.90, 0.27, 11.66, 8.84, 0.32, 15.57]
 }
 
-df = pd.DataFrame(data)
+# Results written by ThreadComparisonWithJcmd (results_ThreadComparisonWithJcmd_IO.csv); pass another results file as the first argument.
+# The published table above is used when no results file exists.
+RESULTS = sys.argv[1] if len(sys.argv) > 1 else os.path.join(
+    os.path.dirname(os.path.abspath(__file__)), "..", "code", "results_ThreadComparisonWithJcmd_IO.csv")
+if os.path.exists(RESULTS):
+    df = pd.read_csv(RESULTS, comment="#")
+else:
+    df = pd.DataFrame(data)
 
 # Unique thread counts and models
 thread_counts = sorted(df['Thread Count'].unique())
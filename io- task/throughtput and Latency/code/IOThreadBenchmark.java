@@ -1,35 +1,110 @@
 import java.time.Duration;
 import java.time.Instant;
-import java.util.*;
+import java.util.List;
 import java.util.concurrent.*;
-import java.util.concurrent.atomic.AtomicInteger;
+
+import loombench.harness.BoundedVirtualExecutor;
+import loombench.harness.CompletionCounter;
+import loombench.harness.Config;
+import loombench.harness.HybridExecutor;
+import loombench.harness.LatencyRecorder;
+import loombench.harness.TaskTimeline;
+import loombench.harness.load.OpenLoopMode;
+import loombench.harness.results.ResultsFile;
+import loombench.harness.sampling.PinningMonitor;
+import loombench.harness.workload.PoolContention;
+import loombench.harness.workload.Workload;
+import loombench.harness.workload.Workloads;
 
 public class IOThreadBenchmark
    {
 
-    static int[] THREAD_COUNTS = {1000, 10000, 50000, 100000};
+    // Override with -Dcounts=... / -Dpool=... / -Dhybrid.pool=...
+    static int[] THREAD_COUNTS = Config.intList("counts", 1000, 10000, 50000, 100000);
+    static final int PLATFORM_POOL = Config.intValue("pool", 200);
+    static final int HYBRID_POOL = Config.intValue("hybrid.pool", 100);
+    // Bounded Virtual rows, one per permit limit: -Dpermits=50,200,1000 (try with -Dworkload=db:connections=50)
+    static final int[] PERMITS = Config.intList("permits", 1000);
+    // Connection-pool contention: Platform/Virtual/Hybrid again per pool, e.g. -Ddb.pools=synchronized,lock,lockfree
+    // (-Ddb.connections=50, -Ddb.timeout.ms=30000)
+    static final List<String> DB_POOLS = PoolContention.poolsFromProperty();
+    static final PinningMonitor PINNING = PinningMonitor.fromProperty(); // -Dpinning
+    // Time and Throughput run from the first submission, not from the end of the submit loop as before the Bounded rows
+    static final ResultsFile RESULTS = ResultsFile.forBenchmark("IOThreadBenchmark")
+            .meta("timedFrom", "first submission");
+    // Fixed arrival rate instead of N tasks at once: -Dload=poisson:rate=2000 or -Dload=saturation
+    static final OpenLoopMode OPEN_LOOP = OpenLoopMode.fromProperties();
+    // Open-loop rows have no Thread Count/Time/Creation, so they stay out of the file graph.py reads
+    static final ResultsFile OPEN_LOOP_RESULTS = ResultsFile.forBenchmark("IOThreadBenchmark_openloop");
+
+    // Network delay + DB delay by default; override with -Dworkload=<spec>
+    static final Workload IO_WORKLOAD = Workloads.fromProperty("workload", "sleep:millis=60/90");
+
+    // Routes tasks by measured CPU/wall time; shared by every run so it keeps what it learned
+    static final HybridExecutor ADAPTIVE = new HybridExecutor();
 
     public static void main(String[] args) throws Exception {
-        for (int count : THREAD_COUNTS) {
-            System.out.println("\n===== Benchmark: " + count + " Threads =====");
-            runPlatformThreads(count);
-            runVirtualThreads(count);
-            runHybridThreads(count);
+        PINNING.drain(); // drop start-up events
+        if (OPEN_LOOP.enabled()) {
+            runOpenLoop();
+        } else {
+            for (int count : THREAD_COUNTS) {
+                System.out.println("\n===== Benchmark: " + count + " Threads =====");
+                runPlatformThreads(count);
+                runVirtualThreads(count);
+                for (int permits : PERMITS) {
+                    runBoundedVirtualThreads(count, permits);
+                }
+                runHybridThreads(count);
+                runAdaptiveThreads(count);
+                for (String pool : DB_POOLS) {
+                    // Every task holds a pooled connection while it waits
+                    PoolContention.runWith(pool, () -> {
+                        runPlatformThreads(count);
+                        runVirtualThreads(count);
+                        runHybridThreads(count);
+                    });
+                }
+            }
         }
+
+        ADAPTIVE.close();
+        PINNING.close();
+        ResultsFile results = OPEN_LOOP.enabled() ? OPEN_LOOP_RESULTS : RESULTS;
+        results.write();
+        System.out.println("\nResults → " + results.csvPath() + ", " + results.jsonPath());
     }
 
-    // Simulated I/O-bound task
-    public static void simulateIOHeavyTask() {
-        try {
-            Thread.sleep(60); // Simulate network delay
-            Thread.sleep(90); // Simulate DB delay
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-        }
+    // Same models, but tasks arrive on a schedule and latency counts from the intended start
+    public static void runOpenLoop() throws InterruptedException {
+        System.out.println("\n===== Open-loop: " + OPEN_LOOP.description() + " =====");
+        ExecutorService platform = Executors.newFixedThreadPool(PLATFORM_POOL);
+        ExecutorService hybridPlatform = Executors.newFixedThreadPool(HYBRID_POOL);
+        ExecutorService virtual = Executors.newVirtualThreadPerTaskExecutor();
+
+        OPEN_LOOP.run("Platform", platform, taskId -> simulateIOHeavyTask(), OPEN_LOOP_RESULTS);
+        OPEN_LOOP.run("Virtual", virtual, taskId -> simulateIOHeavyTask(), OPEN_LOOP_RESULTS);
+        // The issuing thread blocks once every permit is out, so late arrivals show up as latency
+        BoundedVirtualExecutor bounded = new BoundedVirtualExecutor(PERMITS[0]);
+        OPEN_LOOP.run("Bounded-" + PERMITS[0], bounded, taskId -> simulateIOHeavyTask(), OPEN_LOOP_RESULTS);
+        // Alternate arrivals between the pools, the open-loop version of the half/half split
+        OPEN_LOOP.runRouted("Hybrid", taskId -> taskId % 2 == 0 ? hybridPlatform : virtual, taskId -> simulateIOHeavyTask(), OPEN_LOOP_RESULTS);
+        Executor adaptive = task -> ADAPTIVE.execute("io", task);
+        OPEN_LOOP.run("Adaptive", adaptive, taskId -> simulateIOHeavyTask(), OPEN_LOOP_RESULTS);
+
+        platform.shutdown();
+        hybridPlatform.shutdown();
+        virtual.shutdown();
+        bounded.shutdown();
+    }
+
+    // Simulated I/O-bound task; false when a contention run's pool had no connection for it in time
+    public static boolean simulateIOHeavyTask() {
+        return PoolContention.query(() -> IO_WORKLOAD.run(0));
     }
 
     public static void runPlatformThreads(int threadCount) throws InterruptedException {
-        ExecutorService executor = Executors.newFixedThreadPool(200);
+        ExecutorService executor = Executors.newFixedThreadPool(PLATFORM_POOL);
         runBenchmark("Platform", threadCount, executor);
     }
 
@@ -38,88 +113,174 @@ public class IOThreadBenchmark
         runBenchmark("Virtual", threadCount, executor);
     }
 
+    // Virtual thread per task, at most `permits` in flight; the submit loop blocks for a permit (backpressure)
+    public static void runBoundedVirtualThreads(int threadCount, int permits) throws InterruptedException {
+        BoundedVirtualExecutor executor = new BoundedVirtualExecutor(permits);
+        ResultsFile.Row row = runBenchmark("Bounded-" + permits, threadCount, executor);
+        double blockedMs = executor.submitterBlockedNanos() / 1_000_000.0;
+        System.out.printf("           🚦 Permits: %d | Submitter blocked: %.0f ms%n", permits, blockedMs);
+        row.put("Permits", permits).put("Submitter Blocked", blockedMs);
+    }
+
     public static void runHybridThreads(int threadCount) throws InterruptedException {
         int half = threadCount / 2;
-        ExecutorService platform = Executors.newFixedThreadPool(100);
+        ExecutorService platform = Executors.newFixedThreadPool(HYBRID_POOL);
         ExecutorService virtual = Executors.newVirtualThreadPerTaskExecutor();
 
-        List<Long> latencies = Collections.synchronizedList(new ArrayList<>());
-        CountDownLatch latch = new CountDownLatch(threadCount);
-        AtomicInteger completedTasks = new AtomicInteger();
+        TaskTimeline timeline = new TaskTimeline(threadCount);
+        CompletionCounter done = new CompletionCounter(threadCount);
 
         Instant creationStart = Instant.now();
         for (int i = 0; i < half; i++) {
+            final int taskId = i;
+            timeline.enqueued(taskId);
             platform.submit(() -> {
-                recordTaskLatency(latencies);
-                completedTasks.incrementAndGet();
-                latch.countDown();
+                runTimedTask(timeline, taskId);
+                done.complete();
             });
         }
-        for (int i = 0; i < threadCount - half; i++) {
+        for (int i = half; i < threadCount; i++) {
+            final int taskId = i;
+            timeline.enqueued(taskId);
             virtual.submit(() -> {
-                recordTaskLatency(latencies);
-                completedTasks.incrementAndGet();
-                latch.countDown();
+                runTimedTask(timeline, taskId);
+                done.complete();
             });
         }
         Instant creationEnd = Instant.now();
         Duration creationTime = Duration.between(creationStart, creationEnd);
 
-        Instant start = Instant.now();
-        latch.await();
+        // From the first submission, like runBenchmark, so every row's Time and Throughput mean the same
+        Instant start = creationStart;
+        done.await();
         Instant end = Instant.now();
+        TaskTimeline.Summary lifecycle = timeline.summarize(System.nanoTime());
 
         platform.shutdown();
         virtual.shutdown();
 
-        printMetrics("Hybrid", threadCount, completedTasks.get(), latencies, start, end, creationTime);
+        printMetrics("Hybrid", threadCount, done.completed(), lifecycle, start, end, creationTime);
+    }
+
+    // HybridExecutor instead of a fixed 50/50 split: an I/O-bound task type should end up on virtual threads
+    public static void runAdaptiveThreads(int threadCount) throws InterruptedException {
+        TaskTimeline timeline = new TaskTimeline(threadCount);
+        CompletionCounter done = new CompletionCounter(threadCount);
+
+        Instant creationStart = Instant.now();
+        for (int i = 0; i < threadCount; i++) {
+            final int taskId = i;
+            timeline.enqueued(taskId);
+            ADAPTIVE.execute("io", () -> {
+                runTimedTask(timeline, taskId);
+                done.complete();
+            });
+        }
+        Instant creationEnd = Instant.now();
+        Duration creationTime = Duration.between(creationStart, creationEnd);
+
+        // From the first submission, like runBenchmark, so every row's Time and Throughput mean the same
+        Instant start = creationStart;
+        done.await();
+        Instant end = Instant.now();
+        TaskTimeline.Summary lifecycle = timeline.summarize(System.nanoTime());
+
+        printMetrics("Adaptive", threadCount, done.completed(), lifecycle, start, end, creationTime);
+        for (HybridExecutor.TypeStats stats : ADAPTIVE.stats()) {
+            System.out.println("           🔀 " + stats);
+        }
     }
 
-    public static void runBenchmark(String model, int threadCount, ExecutorService executor) throws InterruptedException {
-        List<Long> latencies = Collections.synchronizedList(new ArrayList<>());
-        CountDownLatch latch = new CountDownLatch(threadCount);
-        AtomicInteger completedTasks = new AtomicInteger();
+    public static ResultsFile.Row runBenchmark(String model, int threadCount, ExecutorService executor) throws InterruptedException {
+        TaskTimeline timeline = new TaskTimeline(threadCount);
+        CompletionCounter done = new CompletionCounter(threadCount);
 
         Instant creationStart = Instant.now();
         for (int i = 0; i < threadCount; i++) {
+            final int taskId = i;
+            timeline.enqueued(taskId);
             executor.submit(() -> {
-                recordTaskLatency(latencies);
-                completedTasks.incrementAndGet();
-                latch.countDown();
+                runTimedTask(timeline, taskId);
+                done.complete();
             });
         }
         Instant creationEnd = Instant.now();
         Duration creationTime = Duration.between(creationStart, creationEnd);
 
-        Instant start = Instant.now();
-        latch.await();
+        // From the first submission: a blocking submitter (Bounded) runs most tasks inside the submit loop
+        Instant start = creationStart;
+        done.await();
         Instant end = Instant.now();
+        TaskTimeline.Summary lifecycle = timeline.summarize(System.nanoTime());
         executor.shutdown();
 
-        printMetrics(model, threadCount, completedTasks.get(), latencies, start, end, creationTime);
+        return printMetrics(model, threadCount, done.completed(), lifecycle, start, end, creationTime);
     }
 
-    public static void recordTaskLatency(List<Long> latencies) {
-        Instant taskStart = Instant.now();
-        simulateIOHeavyTask();
-        Instant taskEnd = Instant.now();
-        long latency = Duration.between(taskStart, taskEnd).toMillis();
-        latencies.add(latency);
+    // Start and end stamps around the task body; the submitter stamped the enqueue.
+    // A task that timed out waiting for a connection gets no end stamp, so it is not in the latencies.
+    public static void runTimedTask(TaskTimeline timeline, int taskId) {
+        timeline.started(taskId);
+        if (simulateIOHeavyTask()) {
+            timeline.ended(taskId);
+        }
     }
 
-    public static void printMetrics(String model, int submittedTasks, int completedTasks,
-                                    List<Long> latencies, Instant start, Instant end, Duration creationTime) {
+    // Latency columns are the time inside the task; the ⏱ line splits off the queue wait before it.
+    // Tasks whose query timed out waiting for a connection do not count as completed or in Throughput.
+    public static ResultsFile.Row printMetrics(String model, int submittedTasks, int finishedTasks,
+                                    TaskTimeline.Summary lifecycle, Instant start, Instant end, Duration creationTime) {
+        PoolContention.Report contention = PoolContention.drain();
+        int timedOut = contention == null ? 0 : contention.timeouts();
+        int completedTasks = finishedTasks - timedOut;
         Duration duration = Duration.between(start, end);
         double totalTimeSec = duration.toMillis() / 1000.0;
         double throughput = completedTasks / totalTimeSec;
-        double avgLatency = latencies.stream().mapToLong(Long::longValue).average().orElse(-1);
+        LatencyRecorder.Snapshot latency = lifecycle.service();
+        double avgLatency = latency.count() == 0 ? -1 : latency.mean() / 1_000_000.0;
         long creationTimeMs = creationTime.toMillis();
 
         System.out.printf("Model: %-9s | Submitted: %-6d | Completed: %-6d | Time: %.2fs | Throughput: %.2f req/sec | Avg Latency: %.2f ms | Creation Time: %d ms%n",
                 model, submittedTasks, completedTasks, totalTimeSec, throughput, avgLatency, creationTimeMs);
+        System.out.printf("           Latency (ms) -> p50: %.2f | p90: %.2f | p99: %.2f | p99.9: %.2f | Max: %.2f%n",
+                latency.percentile(50) / 1_000_000.0, latency.percentile(90) / 1_000_000.0,
+                latency.percentile(99) / 1_000_000.0, latency.percentile(99.9) / 1_000_000.0,
+                latency.max() / 1_000_000.0);
+
+        ResultsFile.Row row = RESULTS.row()
+                .put("Thread Count", submittedTasks)
+                .put("Model", model)
+                .put("Completed", completedTasks)
+                .put("Time", totalTimeSec)
+                .put("Throughput", throughput)
+                .put("Latency", avgLatency)
+                .put("Creation", creationTimeMs)
+                .put("p50", latency.percentile(50) / 1_000_000.0)
+                .put("p90", latency.percentile(90) / 1_000_000.0)
+                .put("p99", latency.percentile(99) / 1_000_000.0)
+                .put("p99.9", latency.percentile(99.9) / 1_000_000.0)
+                .put("Max", latency.max() / 1_000_000.0);
+        System.out.println("           ⏱ " + lifecycle);
+        lifecycle.addTo(row);
+
+        if (contention != null) {
+            System.out.println("           🔒 Acquire wait (ms) -> " + contention);
+            contention.addTo(row);
+        }
+
+        // Everything since the previous model's printMetrics
+        PinningMonitor.Report pinning = PINNING.drain();
+        if (PINNING.enabled()) {
+            System.out.println("           📌 Pinning -> " + pinning);
+            pinning.addTo(row);
+        }
 
-        if (completedTasks != submittedTasks) {
-            System.out.printf("⚠ Warning: %d tasks did not complete!%n", submittedTasks - completedTasks);
+        if (timedOut > 0) {
+            System.out.printf("⚠ Warning: %d tasks timed out waiting for a connection!%n", timedOut);
+        }
+        if (finishedTasks != submittedTasks) {
+            System.out.printf("⚠ Warning: %d tasks did not complete!%n", submittedTasks - finishedTasks);
         }
+        return row;
     }
 }